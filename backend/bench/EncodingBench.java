@@ -0,0 +1,101 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+// Per endpoint: response size as JSON and as CBOR, plain and gzip-compressed as the server sends them,
+// and the CPU time to encode and to decode each (the response as a tree, on one core, after warm-up).
+// Usage: java -cp <jackson jars> EncodingBench.java <seconds-per-measurement> <bearer-token> <url>...
+public class EncodingBench {
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final CBORMapper CBOR = new CBORMapper();
+    
+    public static void main(String[] args) throws Exception {
+        double seconds = Double.parseDouble(args[0]);
+        String token = args[1];
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        
+        System.out.printf("%-45s %10s %10s %10s %10s %12s %12s %12s %12s %12s%n", "endpoint",
+                "json B", "json gz B", "cbor B", "cbor gz B",
+                "json enc us", "cbor enc us", "json gz us", "json dec us", "cbor dec us");
+        for (int i = 2; i < args.length; i++) {
+            URI url = URI.create(args[i]);
+            byte[] json = fetch(client, url, token, "application/json", "identity");
+            byte[] jsonGzip = fetch(client, url, token, "application/json", "gzip");
+            byte[] cbor = fetch(client, url, token, "application/cbor", "identity");
+            byte[] cborGzip = fetch(client, url, token, "application/cbor", "gzip");
+            
+            // Both encodings are timed on the same content, as the responses may differ (a sync token, say)
+            JsonNode tree = JSON.readTree(json);
+            double jsonEncode = time(seconds, () -> JSON.writeValueAsBytes(tree));
+            double cborEncode = time(seconds, () -> CBOR.writeValueAsBytes(tree));
+            double gzip = time(seconds, () -> gzip(json));
+            double jsonDecode = time(seconds, () -> JSON.readTree(json));
+            double cborDecode = time(seconds, () -> CBOR.readTree(cbor));
+            System.out.printf("%-45s %10d %10d %10d %10d %12.1f %12.1f %12.1f %12.1f %12.1f%n",
+                    url.getPath() + (url.getQuery() != null ? "?" + url.getQuery() : ""),
+                    json.length, jsonGzip.length, cbor.length, cborGzip.length,
+                    jsonEncode, cborEncode, gzip, jsonDecode, cborDecode);
+        }
+    }
+    
+    // The body as sent: HttpClient does not decompress, so a gzip response is measured compressed
+    private static byte[] fetch(HttpClient client, URI url, String token, String accept, String encoding) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", accept)
+                .header("Accept-Encoding", encoding)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " answered " + response.statusCode());
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (!contentType.startsWith(accept)) {
+            throw new IllegalStateException(url + " answered " + contentType + " for " + accept);
+        }
+        return response.body();
+    }
+    
+    private static byte[] gzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+    
+    // Microseconds per call: a warm-up of the same length, then as many calls as fit in the time
+    private static double time(double seconds, Task task) throws Exception {
+        long budget = (long) (seconds * 1_000_000_000L);
+        for (long end = System.nanoTime() + budget; System.nanoTime() < end; ) {
+            task.run();
+        }
+        long calls = 0;
+        long start = System.nanoTime();
+        long end = start + budget;
+        long now;
+        do {
+            task.run();
+            calls++;
+            now = System.nanoTime();
+        } while (now < end);
+        return (now - start) / 1e3 / calls;
+    }
+    
+    private interface Task {
+        Object run() throws Exception;
+    }
+}
\ No newline at end of file
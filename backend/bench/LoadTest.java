@@ -0,0 +1,94 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load generator: each client sends the next request as soon as the previous one answers,
+// cycling through the given URLs. Prints throughput and latency percentiles of the measured period.
+// Usage: java LoadTest.java <clients> <seconds> <warmup-seconds> <bearer-token> <url>...
+public class LoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.parseInt(args[0]);
+        long seconds = Long.parseLong(args[1]);
+        long warmupSeconds = Long.parseLong(args[2]);
+        String token = args[3];
+        List<URI> urls = Arrays.stream(args, 4, args.length).map(URI::create).toList();
+        
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = measureFrom + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        
+        for (int c = 0; c < clients; c++) {
+            int id = c;
+            long[] own = new long[1 << 16];
+            latencies.add(own);
+            Thread thread = new Thread(() -> {
+                long[] samples = own;
+                int n = 0;
+                int next = id;
+                while (System.nanoTime() < end) {
+                    HttpRequest request = HttpRequest.newBuilder(urls.get(next++ % urls.size()))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(60))
+                            .build();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long finish = System.nanoTime();
+                    if (start < measureFrom || finish > end) {
+                        continue;
+                    }
+                    if (!ok) {
+                        errors.incrementAndGet();
+                    }
+                    if (n == samples.length) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                        latencies.set(id, samples);
+                    }
+                    samples[n++] = finish - start;
+                }
+                counts[id] = n;
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+        
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                clients, total, errors.get(), total / (double) seconds,
+                percentile(all, 0.50), percentile(all, 0.99), total > 0 ? all[total - 1] / 1e6 : 0.0);
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
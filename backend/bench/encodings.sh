@@ -0,0 +1,36 @@
+#!/bin/bash
+# Compares JSON and CBOR responses per endpoint: bytes on the wire plain and gzip-compressed, and the
+# CPU time to encode, compress and decode them.
+#
+# Usage: bench/encodings.sh [url...]       (paths relative to the API, e.g. /schools; defaults below)
+# Needs the application running on BENCH_BASE (default http://localhost:8080/api). BENCH_USER and
+# BENCH_PASSWORD log in (default admin/admin123); BENCH_SECONDS sets the time per measurement.
+
+set -e
+cd "$(dirname "$0")/.."
+
+BASE=${BENCH_BASE:-http://localhost:8080/api}
+MONTH=$(date +%Y-%m)
+PATHS=("$@")
+if [ ${#PATHS[@]} -eq 0 ]; then
+    # What the mobile app pulls: reference lists, a month of menus with their food items, records and a full sync
+    PATHS=(
+        "/schools"
+        "/food-items"
+        "/menus/current-month"
+        "/menus/period/with-food-items?startDate=$MONTH-01&endDate=$(date -d "$MONTH-01 +1 month -1 day" +%F)"
+        "/meal-records?size=200"
+        "/sync?schoolId=${BENCH_SCHOOL_ID:-1}"
+    )
+fi
+
+mvn -q dependency:build-classpath -Dmdep.outputFile=target/bench-classpath.txt \
+    -Dmdep.includeGroupIds=com.fasterxml.jackson.core,com.fasterxml.jackson.dataformat
+
+token=$(curl -sf -X POST -H 'Content-Type: application/json' \
+    -d "{\"username\":\"${BENCH_USER:-admin}\",\"password\":\"${BENCH_PASSWORD:-admin123}\"}" \
+    "$BASE/auth/login" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+[ -n "$token" ] || { echo "Login failed" >&2; exit 1; }
+
+java -cp "$(cat target/bench-classpath.txt)" bench/EncodingBench.java "${BENCH_SECONDS:-2}" "$token" \
+    "${PATHS[@]/#/$BASE}"
@@ -0,0 +1,145 @@
+-- Compares meal record queries on an unpartitioned table against the same rows partitioned by month
+-- (database/meal_records_partitioning.sql), using several years of synthetic records.
+--
+-- Usage: psql -d middaymeal_db -f bench/partitioning.sql
+-- Works in its own schema, partition_bench, which is dropped at the end; meal_records is not touched.
+-- Change the settings below for more schools or years (the default, 2000 schools over four years,
+-- is about 2.1 million records per table). Prints the average time of each query in both layouts.
+
+DROP SCHEMA IF EXISTS partition_bench CASCADE;
+CREATE SCHEMA partition_bench;
+SET search_path = partition_bench;
+
+CREATE TABLE settings AS
+SELECT 2000 AS schools, DATE '2022-01-01' AS first_day, DATE '2025-12-31' AS last_day, 20 AS runs;
+
+-- Same columns and indexes as meal_records, before and after partitioning
+CREATE TABLE records_unpartitioned (
+    id BIGINT NOT NULL,
+    school_id BIGINT NOT NULL,
+    menu_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    students_present INTEGER NOT NULL,
+    meals_served INTEGER NOT NULL,
+    grade_1_5_present INTEGER,
+    grade_6_8_present INTEGER,
+    total_cost DECIMAL(10,2),
+    cooking_cost DECIMAL(10,2),
+    remarks TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE TABLE records_partitioned (LIKE records_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (date);
+
+DO $$
+DECLARE
+    v_month DATE;
+BEGIN
+    SELECT date_trunc('month', first_day)::DATE INTO v_month FROM settings;
+    WHILE v_month <= (SELECT last_day FROM settings) LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF records_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'records_' || to_char(v_month, 'YYYY_MM'), v_month, v_month + INTERVAL '1 month');
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    CREATE TABLE records_default PARTITION OF records_partitioned DEFAULT;
+END $$;
+
+-- One record per school per weekday, in date order as they would be entered
+INSERT INTO records_unpartitioned (id, school_id, menu_id, date, students_present, meals_served,
+                                   grade_1_5_present, grade_6_8_present, total_cost, cooking_cost)
+SELECT row_number() OVER (ORDER BY d, s), s, 1 + (d - DATE '2000-01-01') % 23, d,
+       p, p, p * 2 / 3, p - p * 2 / 3, (p * 2 / 3) * 2.59 + (p - p * 2 / 3) * 3.88, p * 1.10
+FROM settings,
+     generate_series(first_day, last_day, INTERVAL '1 day') AS g(day),
+     LATERAL (SELECT g.day::DATE AS d) AS days,
+     generate_series(1, schools) AS s,
+     LATERAL (SELECT 40 + (s * 7 + (d - first_day)) % 160 AS p) AS present
+WHERE EXTRACT(ISODOW FROM d) < 6;
+INSERT INTO records_partitioned SELECT * FROM records_unpartitioned;
+
+ALTER TABLE records_unpartitioned ADD PRIMARY KEY (id);
+ALTER TABLE records_unpartitioned ADD UNIQUE (school_id, menu_id, date);
+CREATE INDEX ON records_unpartitioned (school_id);
+CREATE INDEX ON records_unpartitioned (date);
+CREATE INDEX ON records_unpartitioned (menu_id);
+CREATE INDEX ON records_unpartitioned (date, id);
+CREATE INDEX ON records_unpartitioned (school_id, date, id);
+
+ALTER TABLE records_partitioned ADD PRIMARY KEY (id, date);
+ALTER TABLE records_partitioned ADD UNIQUE (school_id, menu_id, date);
+CREATE INDEX ON records_partitioned (menu_id);
+CREATE INDEX ON records_partitioned (date, id);
+CREATE INDEX ON records_partitioned (school_id, date, id);
+
+VACUUM ANALYZE records_unpartitioned;
+VACUUM ANALYZE records_partitioned;
+
+-- The repository's queries; {t} is the table, {s} a school, {from}/{to} a month (a year for the
+-- school year query) and {id} a record. Each run takes another school, month and record.
+CREATE TABLE queries (position INT, name TEXT, sql TEXT);
+INSERT INTO queries VALUES
+    (1, 'Meals served in a month (getTotalMealsServedInPeriod)',
+        'SELECT SUM(meals_served) FROM {t} WHERE date BETWEEN {from} AND {to}'),
+    (2, 'School''s month (findSchoolMealRecordsInPeriod)',
+        'SELECT * FROM {t} WHERE school_id = {s} AND date BETWEEN {from} AND {to} ORDER BY date DESC'),
+    (3, 'School''s year (findBySchoolIdAndDateBetween)',
+        'SELECT * FROM {t} WHERE school_id = {s} AND date BETWEEN {from} AND {from}::DATE + 364'),
+    (4, 'First keyset page of a month (findPeriodPageAfter)',
+        'SELECT * FROM {t} WHERE date BETWEEN {from} AND {to} AND (date > {from} OR (date = {from} AND id > 0)) ORDER BY date, id LIMIT 50'),
+    (5, 'Daily rollups of a month (rebuildFromMealRecords)',
+        'SELECT school_id, date, SUM(meals_served), SUM(students_present) FROM {t} WHERE date BETWEEN {from} AND {to} GROUP BY school_id, date'),
+    (6, 'Record by id (findById)',
+        'SELECT * FROM {t} WHERE id = {id}');
+
+CREATE TABLE results (position INT, layout TEXT, avg_ms NUMERIC);
+
+DO $$
+DECLARE
+    v_settings settings%ROWTYPE;
+    v_query queries%ROWTYPE;
+    v_table TEXT;
+    v_months INT;
+    v_records BIGINT;
+    v_month DATE;
+    v_sql TEXT;
+    v_start TIMESTAMPTZ;
+    v_total INTERVAL;
+BEGIN
+    SELECT * INTO v_settings FROM settings;
+    v_months := (EXTRACT(YEAR FROM age(v_settings.last_day, v_settings.first_day)) * 12
+                 + EXTRACT(MONTH FROM age(v_settings.last_day, v_settings.first_day)))::INT;
+    SELECT COUNT(*) INTO v_records FROM records_unpartitioned;
+    FOR v_query IN SELECT * FROM queries ORDER BY position LOOP
+        FOREACH v_table IN ARRAY ARRAY['records_unpartitioned', 'records_partitioned'] LOOP
+            v_total := INTERVAL '0';
+            -- Run 0 warms the cache and is not counted
+            FOR v_run IN 0..v_settings.runs LOOP
+                v_month := (date_trunc('month', v_settings.first_day) + (v_run * 7 % GREATEST(v_months - 11, 1)) * INTERVAL '1 month')::DATE;
+                v_sql := replace(replace(replace(replace(replace(v_query.sql,
+                        '{t}', v_table),
+                        '{s}', (1 + v_run * 97 % v_settings.schools)::TEXT),
+                        '{from}', quote_literal(v_month)),
+                        '{to}', quote_literal((v_month + INTERVAL '1 month - 1 day')::DATE)),
+                        '{id}', (1 + v_run * 104729 % v_records)::TEXT);
+                v_start := clock_timestamp();
+                EXECUTE v_sql;
+                IF v_run > 0 THEN
+                    v_total := v_total + (clock_timestamp() - v_start);
+                END IF;
+            END LOOP;
+            INSERT INTO results VALUES (v_query.position,
+                    v_table, ROUND((EXTRACT(EPOCH FROM v_total) * 1000 / v_settings.runs)::NUMERIC, 2));
+        END LOOP;
+    END LOOP;
+END $$;
+
+SELECT q.name AS query,
+       u.avg_ms AS unpartitioned_ms,
+       p.avg_ms AS partitioned_ms
+FROM queries q
+JOIN results u ON u.position = q.position AND u.layout = 'records_unpartitioned'
+JOIN results p ON p.position = q.position AND p.layout = 'records_partitioned'
+ORDER BY q.position;
+
+RESET search_path;
+DROP SCHEMA partition_bench CASCADE;
@@ -0,0 +1,63 @@
+#!/bin/bash
+# Compares throughput and p99 latency of the platform-thread Tomcat pool against virtual threads
+# (app.virtual-threads.enabled) under the same closed-loop client load.
+#
+# Usage: bench/virtual-threads.sh [clients...]       e.g. bench/virtual-threads.sh 50 200 800
+# Needs Java 21, the jar built by `mvn package` and the database configured for the application.
+# BENCH_USER/BENCH_PASSWORD log in (default admin/admin123); BENCH_SECONDS and BENCH_WARMUP set the
+# measured and warm-up time per run; extra JVM options for the server go in BENCH_JAVA_OPTS.
+
+set -e
+cd "$(dirname "$0")/.."
+
+JAR=target/midday-meal-backend-1.0.0.jar
+PORT=${BENCH_PORT:-8089}
+BASE=http://localhost:$PORT/api
+SECONDS_PER_RUN=${BENCH_SECONDS:-30}
+WARMUP=${BENCH_WARMUP:-10}
+CLIENTS=("${@:-50 200 800}")
+CLIENTS=(${CLIENTS[@]})
+
+if ! java -version 2>&1 | grep -qE 'version "(2[1-9]|[3-9][0-9])'; then
+    echo "Java 21 or later is needed for virtual threads" >&2
+    exit 1
+fi
+[ -f "$JAR" ] || { echo "Build the jar first: mvn package -DskipTests" >&2; exit 1; }
+
+# A mix of typical reads: projection lists, a menu fetch with its food items, a keyset page and the in-memory dashboard
+URLS=(
+    "$BASE/schools"
+    "$BASE/menus/current-week/with-food-items"
+    "$BASE/meal-records?size=50"
+    "$BASE/dashboard/stats"
+)
+
+run() {
+    local virtual=$1
+    java $BENCH_JAVA_OPTS -jar "$JAR" --server.port=$PORT --management.server.port=$((PORT + 1)) \
+        --app.virtual-threads.enabled=$virtual \
+        --logging.level.org.springframework.security=INFO --logging.file.name=target/bench-server.log \
+        > target/bench-server.out 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+    for _ in $(seq 1 120); do
+        curl -sf "http://localhost:$((PORT + 1))/actuator/health" > /dev/null && break
+        sleep 1
+    done
+    local token
+    token=$(curl -sf -X POST -H 'Content-Type: application/json' \
+        -d "{\"username\":\"${BENCH_USER:-admin}\",\"password\":\"${BENCH_PASSWORD:-admin123}\"}" \
+        "$BASE/auth/login" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+    [ -n "$token" ] || { echo "Login failed" >&2; kill $pid; exit 1; }
+    
+    for clients in "${CLIENTS[@]}"; do
+        printf '%-9s ' "$([ "$virtual" = true ] && echo virtual || echo platform)"
+        java bench/LoadTest.java "$clients" "$SECONDS_PER_RUN" "$WARMUP" "$token" "${URLS[@]}"
+    done
+    kill $pid
+    wait $pid 2>/dev/null || true
+    trap - EXIT
+}
+
+run false
+run true
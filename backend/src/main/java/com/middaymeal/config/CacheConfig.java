@@ -0,0 +1,10 @@
+package com.middaymeal.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Turns on Spring Boot's cache auto-configuration (Caffeine, see spring.cache in application.yml)
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
\ No newline at end of file
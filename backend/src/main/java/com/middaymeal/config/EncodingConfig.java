@@ -0,0 +1,41 @@
+package com.middaymeal.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Serves every JSON response as CBOR (application/cbor) to clients that ask for it in Accept: the same
+ * fields in a binary encoding, smaller and cheaper to parse on a phone. Clients that accept anything
+ * still get JSON. Compression of either is Tomcat's (server.compression in application.yml).
+ */
+@Configuration
+public class EncodingConfig implements WebMvcConfigurer {
+    
+    // Replaces MVC's default CBOR converter in place (after JSON), built with Boot's customized
+    // builder so dates and the spring.jackson settings come out as they do in JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    // A URL answers in JSON or CBOR by Accept, so caches must not hand one client's encoding to another
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.middaymeal.config;
+
+import com.middaymeal.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Authenticates a request from its bearer token alone; a missing or invalid token leaves the
+// request anonymous, and the security rules then answer 401 where authentication is required. The
+// authentication is also saved with the request, as this filter runs once per request: the async
+// dispatch that finishes a streamed response must find it there.
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final JwtService jwtService;
+    private final SecurityContextRepository securityContextRepository;
+    
+    public JwtAuthenticationFilter(JwtService jwtService, SecurityContextRepository securityContextRepository) {
+        this.jwtService = jwtService;
+        this.securityContextRepository = securityContextRepository;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            jwtService.authenticate(header.substring(BEARER_PREFIX.length()).trim()).ifPresent(user -> {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.role().name())));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.middaymeal.config;
+
+import com.middaymeal.service.MealRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Backfills the meal rollups at startup when launched with {@code --rebuild-rollups},
+ * optionally limited with {@code --rebuild-rollups.from=YYYY-MM-DD --rebuild-rollups.to=YYYY-MM-DD}.
+ */
+@Component
+public class RollupRebuildRunner implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RollupRebuildRunner.class);
+    
+    private final MealRollupService mealRollupService;
+    
+    public RollupRebuildRunner(MealRollupService mealRollupService) {
+        this.mealRollupService = mealRollupService;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("rebuild-rollups")) {
+            return;
+        }
+        
+        List<String> from = args.getOptionValues("rebuild-rollups.from");
+        List<String> to = args.getOptionValues("rebuild-rollups.to");
+        if (from != null && to != null) {
+            logger.info("Rebuilding meal rollups from {} to {}", from.get(0), to.get(0));
+            mealRollupService.rebuild(LocalDate.parse(from.get(0)), LocalDate.parse(to.get(0)));
+        } else {
+            logger.info("Rebuilding all meal rollups");
+            mealRollupService.rebuildAll();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.middaymeal.config;
+
+import com.middaymeal.service.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+// Stateless token authentication: no session, no login form; every request but the login itself
+// (and the API docs and health check) needs a valid bearer token. @PreAuthorize rules apply on top.
+@Configuration
+@EnableWebSecurity
+@EnableMethodSecurity
+public class SecurityConfig {
+    
+    // Each step up in strength doubles the cost of a hash. Existing hashes keep the strength they were made with.
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${spring.security.password-hashing.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+    
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtService jwtService) throws Exception {
+        // Per request, not per session: loaded again on the async and error dispatches of the same request
+        SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+        return http
+                .csrf(AbstractHttpConfigurer::disable)
+                .cors(cors -> {})
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(securityContextRepository))
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers("/auth/login", "/actuator/health", "/actuator/info").permitAll()
+                        // For the Prometheus scraper; actuator is only on the unpublished management port
+                        .requestMatchers("/actuator/prometheus").permitAll()
+                        .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/error").permitAll()
+                        .anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                // Not a bean, so the servlet container does not run it a second time outside the security chain
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService, securityContextRepository), UsernamePasswordAuthenticationFilter.class)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.middaymeal.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the services as service.invocations, tagged by service, method, outcome
+ * (SUCCESS or ERROR) and exception, next to Spring Data's spring.data.repository.invocations for the
+ * repositories and http.server.requests for the endpoints. Outermost around the service, so the time
+ * includes its transaction's commit and a cached answer is timed as the caller saw it. A call is timed
+ * until it returns: a method handing its work to a pool (a login's password check, a queued report) is
+ * timed for the handing over. Calls a service makes to its own methods are not timed.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+    
+    private final MeterRegistry meterRegistry;
+    // Looked up once per method; a failure's timer depends on the exception, and failures are rare
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("within(com.middaymeal.service..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            timer(method, "ERROR", e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        successTimers.computeIfAbsent(method, m -> timer(m, "SUCCESS", "None"))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+    
+    private Timer timer(Method method, String outcome, String exception) {
+        return Timer.builder("service.invocations")
+                .description("Duration of service invocations")
+                .tag("service", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
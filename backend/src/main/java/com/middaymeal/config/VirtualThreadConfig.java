@@ -0,0 +1,103 @@
+package com.middaymeal.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in (app.virtual-threads.enabled, needs Java 21): runs servlet requests, @Async and MVC async
+ * work (the streamed exports) and scheduled jobs on virtual threads instead of the fixed Tomcat and
+ * task pools. A request blocked on JPA then parks a cheap virtual thread instead of holding one of
+ * Tomcat's 200 workers. How many requests can be in the database at once is still decided by the
+ * Hikari pool, so connection checkout goes through {@link ConnectionLimitingDataSource}: excess
+ * requests queue there in arrival order instead of piling into the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        logger.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor("http-vt-"));
+    }
+    
+    // Replaces Boot's pooled applicationTaskExecutor, which also runs the MVC async requests
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return virtualThreadExecutor("task-vt-");
+    }
+    
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder builder) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        scheduler.setThreadFactory(virtualThreadFactory("scheduling-vt-"));
+        return scheduler;
+    }
+    
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    // Fills in Hikari's defaults (such as the pool size of 10), which it otherwise does on first use
+                    hikari.validate();
+                    logger.info("Limiting concurrent JDBC connections to the pool size ({})", hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("jdbc.connections.waiting", limited, ConnectionLimitingDataSource::getWaiting)
+                        .description("Threads waiting for a JDBC connection")
+                        .register(registry);
+            }
+        };
+    }
+    
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String namePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(namePrefix);
+        // One new virtual thread per task
+        executor.setThreadFactory(virtualThreadFactory(namePrefix));
+        return executor;
+    }
+    
+    // Thread.ofVirtual().name(prefix, 0).factory(), looked up reflectively so the code still builds on Java 17
+    static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("app.virtual-threads.enabled needs Java 21 or later, running on "
+                    + Runtime.version(), e);
+        }
+    }
+}
\ No newline at end of file
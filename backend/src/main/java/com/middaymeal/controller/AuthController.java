@@ -0,0 +1,49 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.LoginRequest;
+import com.middaymeal.dto.LoginResponse;
+import com.middaymeal.service.AuthService;
+import com.middaymeal.service.SaturatedException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@RestController
+@RequestMapping("/auth")
+@Tag(name = "Authentication", description = "APIs for logging in")
+@CrossOrigin(origins = "*")
+public class AuthController {
+    
+    private final AuthService authService;
+    
+    @Autowired
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+    
+    @PostMapping("/login")
+    @Operation(summary = "Log in and get a bearer token for the other APIs")
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
+        try {
+            return authService.login(request.getUsername(), request.getPassword())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        if (cause instanceof BadCredentialsException) {
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(cause.getMessage());
+                        }
+                        throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                    });
+        } catch (SaturatedException e) {
+            return CompletableFuture.completedFuture(SaturatedResponse.of(e));
+        }
+    }
+}
\ No newline at end of file
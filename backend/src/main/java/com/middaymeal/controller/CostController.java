@@ -0,0 +1,63 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.CostReconciliation;
+import com.middaymeal.dto.MealCostRate;
+import com.middaymeal.service.MealCostService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/costs")
+@Tag(name = "Meal Costs", description = "APIs for meal cost rates and monthly cost reconciliation")
+@CrossOrigin(origins = "*")
+public class CostController {
+    
+    private final MealCostService mealCostService;
+    
+    @Autowired
+    public CostController(MealCostService mealCostService) {
+        this.mealCostService = mealCostService;
+    }
+    
+    @GetMapping("/rates")
+    @Operation(summary = "Get every version of the per-student meal cost rates, by effective date")
+    public ResponseEntity<?> getRates() {
+        try {
+            return ResponseEntity.ok(mealCostService.getRates());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/rates")
+    @Operation(summary = "Add a rate from an effective date, as the next version when that date already has one (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> addRate(@Valid @RequestBody MealCostRate rate) {
+        try {
+            return new ResponseEntity<>(mealCostService.addRate(rate), HttpStatus.CREATED);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/reconcile")
+    @Operation(summary = "Reprice a month of meal records at the rates in force and write back changed costs (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconcile(@RequestParam int year, @RequestParam int month,
+                                       @RequestParam(required = false) Long schoolId) {
+        try {
+            CostReconciliation reconciliation = mealCostService.reconcileMonth(YearMonth.of(year, month), schoolId);
+            return ResponseEntity.ok(reconciliation);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.DashboardStats;
+import com.middaymeal.service.DashboardStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/dashboard")
+@Tag(name = "Dashboard", description = "APIs for dashboard statistics")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+    
+    private final DashboardStatsService dashboardStatsService;
+    
+    @Autowired
+    public DashboardController(DashboardStatsService dashboardStatsService) {
+        this.dashboardStatsService = dashboardStatsService;
+    }
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get dashboard statistics in a single call")
+    public ResponseEntity<DashboardStats> getStats() {
+        return ResponseEntity.ok(dashboardStatsService.getStats());
+    }
+}
\ No newline at end of file
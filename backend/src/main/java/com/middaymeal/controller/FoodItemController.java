@@ -0,0 +1,61 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.FoodItemSummary;
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.service.FoodItemService;
+import com.middaymeal.service.ReferenceDataVersions;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
+import com.middaymeal.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/food-items")
+@Tag(name = "Food Items", description = "APIs for managing food items")
+@CrossOrigin(origins = "*")
+public class FoodItemController {
+    
+    private final FoodItemService foodItemService;
+    private final ReferenceDataVersions referenceDataVersions;
+    
+    @Autowired
+    public FoodItemController(FoodItemService foodItemService, ReferenceDataVersions referenceDataVersions) {
+        this.foodItemService = foodItemService;
+        this.referenceDataVersions = referenceDataVersions;
+    }
+    
+    @GetMapping
+    @Operation(summary = "Get all active food items (304 when the If-None-Match ETag is current)")
+    public ResponseEntity<List<FoodItemSummary>> getAllFoodItems(WebRequest request) {
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.FOOD_ITEMS);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<FoodItemSummary> foodItems = foodItemService.getAllActiveFoodItems();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(foodItems);
+    }
+    
+    @PostMapping
+    @Operation(summary = "Create a new food item")
+    public ResponseEntity<FoodItem> createFoodItem(@Valid @RequestBody FoodItem foodItem) {
+        FoodItem createdFoodItem = foodItemService.createFoodItem(foodItem);
+        return new ResponseEntity<>(createdFoodItem, HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/search")
+    @Operation(summary = "Search food items by English or Marathi name (name prefix matches first)")
+    public ResponseEntity<List<FoodItemSummary>> searchFoodItems(@RequestParam String query,
+                                                                 @RequestParam(defaultValue = "" + SearchService.DEFAULT_LIMIT) int limit) {
+        List<FoodItemSummary> foodItems = foodItemService.searchFoodItems(query, limit);
+        return ResponseEntity.ok(foodItems);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.WorkbookImportResult;
+import com.middaymeal.service.WorkbookImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+@RestController
+@RequestMapping("/imports")
+@Tag(name = "Imports", description = "APIs for importing monthly registers from Excel")
+@CrossOrigin(origins = "*")
+public class ImportController {
+    
+    private final WorkbookImportService workbookImportService;
+    
+    @Autowired
+    public ImportController(WorkbookImportService workbookImportService) {
+        this.workbookImportService = workbookImportService;
+    }
+    
+    @PostMapping(value = "/monthly-workbook", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import a school's monthly MDM workbook (.xlsx): menus, quantities and daily attendance")
+    public ResponseEntity<?> importMonthlyWorkbook(@RequestParam Long schoolId,
+                                                   @RequestParam("file") MultipartFile file,
+                                                   @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Workbook file is empty");
+        }
+        // The event reader opens the package from disk instead of buffering the upload in memory
+        File workbook = Files.createTempFile("mdm-import-", ".xlsx").toFile();
+        try {
+            file.transferTo(workbook);
+            WorkbookImportResult result = workbookImportService.importMonthlyWorkbook(schoolId, workbook, dryRun);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            // An unreadable workbook or an unknown school; anything else is a server error
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } finally {
+            Files.deleteIfExists(workbook.toPath());
+        }
+    }
+}
\ No newline at end of file
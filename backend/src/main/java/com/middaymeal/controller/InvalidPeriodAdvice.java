@@ -0,0 +1,18 @@
+package com.middaymeal.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.DateTimeException;
+
+// The month endpoints (reports, costs, requirements) build YearMonth.of(year, month) from request
+// parameters; a month outside 1-12, or a year out of range, is the client's error
+@RestControllerAdvice
+public class InvalidPeriodAdvice {
+    
+    @ExceptionHandler(DateTimeException.class)
+    public ResponseEntity<String> invalidMonth(DateTimeException e) {
+        return ResponseEntity.badRequest().body("Invalid year or month: " + e.getMessage());
+    }
+}
\ No newline at end of file
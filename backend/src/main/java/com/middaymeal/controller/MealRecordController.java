@@ -0,0 +1,162 @@
+package com.middaymeal.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.middaymeal.dto.BulkIngestResult;
+import com.middaymeal.dto.MealRecordPage;
+import com.middaymeal.dto.MealRecordRequest;
+import com.middaymeal.dto.MealRecordResponse;
+import com.middaymeal.entity.MealRecord;
+import com.middaymeal.service.MealRecordService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/meal-records")
+@Tag(name = "Meal Record Management", description = "APIs for managing daily meal records")
+@CrossOrigin(origins = "*")
+public class MealRecordController {
+    
+    private final MealRecordService mealRecordService;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public MealRecordController(MealRecordService mealRecordService, ObjectMapper objectMapper) {
+        this.mealRecordService = mealRecordService;
+        this.objectMapper = objectMapper;
+    }
+    
+    @GetMapping
+    @Operation(summary = "Get a page of meal records for a period (defaults to the current month)")
+    public ResponseEntity<MealRecordPage> getMealRecords(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long schoolId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        LocalDate start = startDate != null ? startDate : LocalDate.now().withDayOfMonth(1);
+        LocalDate end = endDate != null ? endDate : start.withDayOfMonth(start.lengthOfMonth());
+        MealRecordPage page = mealRecordService.getMealRecordPage(schoolId, start, end, afterDate, afterId, size);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all meal records for a period as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamMealRecords(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long schoolId) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                mealRecordService.streamMealRecords(schoolId, startDate, endDate, record -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(record));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get meal record by ID")
+    public ResponseEntity<MealRecordResponse> getMealRecordById(@PathVariable Long id) {
+        return mealRecordService.getMealRecordById(id)
+                .map(mealRecord -> ResponseEntity.ok(new MealRecordResponse(mealRecord)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/today")
+    @Operation(summary = "Get today's meal records")
+    public ResponseEntity<List<MealRecordResponse>> getTodaysMealRecords() {
+        List<MealRecordResponse> records = mealRecordService.getTodaysMealRecords().stream()
+                .map(MealRecordResponse::new)
+                .toList();
+        return ResponseEntity.ok(records);
+    }
+    
+    @GetMapping("/school/{schoolId}")
+    @Operation(summary = "Get meal records of a school for a date range")
+    public ResponseEntity<List<MealRecordResponse>> getMealRecordsBySchool(
+            @PathVariable Long schoolId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<MealRecordResponse> records = mealRecordService.getMealRecordsBySchoolAndPeriod(schoolId, startDate, endDate).stream()
+                .map(MealRecordResponse::new)
+                .toList();
+        return ResponseEntity.ok(records);
+    }
+    
+    @PostMapping
+    @Operation(summary = "Create a new meal record, or update the one of the same school, menu and date")
+    public ResponseEntity<?> createMealRecord(@Valid @RequestBody MealRecord mealRecord) {
+        return submissionResponse(() -> mealRecordService.createMealRecord(mealRecord));
+    }
+    
+    @PutMapping
+    @Operation(summary = "Submit the meal record of a school, menu and date: created (201) or updated (200) in one step, safe to retry")
+    public ResponseEntity<?> submitMealRecord(@Valid @RequestBody MealRecordRequest request) {
+        return submissionResponse(() -> mealRecordService.submitMealRecord(request));
+    }
+    
+    private ResponseEntity<?> submissionResponse(Supplier<MealRecordService.Submission> submit) {
+        try {
+            MealRecordService.Submission submission = submit.get();
+            return new ResponseEntity<>(submission.record(), submission.created() ? HttpStatus.CREATED : HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many meal records in one request with a per-row result report")
+    public ResponseEntity<?> bulkCreateMealRecords(@RequestBody List<MealRecordRequest> requests) {
+        if (requests.size() > MealRecordService.MAX_BULK_ROWS) {
+            return ResponseEntity.badRequest()
+                    .body("At most " + MealRecordService.MAX_BULK_ROWS + " meal records can be submitted per request");
+        }
+        BulkIngestResult result = mealRecordService.bulkCreateMealRecords(requests);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PutMapping("/{id}")
+    @Operation(summary = "Update an existing meal record")
+    public ResponseEntity<MealRecordResponse> updateMealRecord(@PathVariable Long id, @Valid @RequestBody MealRecord mealRecordDetails) {
+        try {
+            MealRecord updatedMealRecord = mealRecordService.updateMealRecord(id, mealRecordDetails);
+            return ResponseEntity.ok(new MealRecordResponse(updatedMealRecord));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a meal record")
+    public ResponseEntity<Void> deleteMealRecord(@PathVariable Long id) {
+        mealRecordService.deleteMealRecord(id);
+        return ResponseEntity.ok().build();
+    }
+}
\ No newline at end of file
@@ -1,17 +1,25 @@
 package com.middaymeal.controller;
 
+import com.middaymeal.dto.MenuDetail;
+import com.middaymeal.dto.MenuSummary;
 import com.middaymeal.entity.Menu;
 import com.middaymeal.service.MenuService;
+import com.middaymeal.service.ReferenceDataVersions;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -21,22 +29,28 @@ import java.util.List;
 public class MenuController {
     
     private final MenuService menuService;
+    private final ReferenceDataVersions referenceDataVersions;
     
     @Autowired
-    public MenuController(MenuService menuService) {
+    public MenuController(MenuService menuService, ReferenceDataVersions referenceDataVersions) {
         this.menuService = menuService;
+        this.referenceDataVersions = referenceDataVersions;
     }
     
     @GetMapping
-    @Operation(summary = "Get all active menus")
-    public ResponseEntity<List<Menu>> getAllMenus() {
-        List<Menu> menus = menuService.getAllActiveMenus();
-        return ResponseEntity.ok(menus);
+    @Operation(summary = "Get all active menus (304 when the If-None-Match ETag is current)")
+    public ResponseEntity<List<MenuSummary>> getAllMenus(WebRequest request) {
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.MENUS);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<MenuSummary> menus = menuService.getAllActiveMenus();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(menus);
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Get menu by ID")
-    public ResponseEntity<Menu> getMenuById(@PathVariable Long id) {
+    public ResponseEntity<MenuDetail> getMenuById(@PathVariable Long id) {
         return menuService.getMenuById(id)
                 .map(menu -> ResponseEntity.ok(menu))
                 .orElse(ResponseEntity.notFound().build());
@@ -44,7 +58,7 @@ public class MenuController {
     
     @GetMapping("/date/{date}/mealType/{mealType}")
     @Operation(summary = "Get menu by date and meal type")
-    public ResponseEntity<Menu> getMenuByDateAndMealType(
+    public ResponseEntity<MenuDetail> getMenuByDateAndMealType(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @PathVariable Menu.MealType mealType) {
         return menuService.getMenuByDateAndMealType(date, mealType)
@@ -54,19 +68,32 @@ public class MenuController {
     
     @GetMapping("/month/{month}/year/{year}")
     @Operation(summary = "Get menus for a specific month and year")
-    public ResponseEntity<List<Menu>> getMenusForMonth(@PathVariable Integer month, @PathVariable Integer year) {
-        List<Menu> menus = menuService.getMenusForMonth(month, year);
+    public ResponseEntity<List<MenuSummary>> getMenusForMonth(@PathVariable Integer month, @PathVariable Integer year,
+                                                              WebRequest request) {
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.MENUS);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<MenuSummary> menus = menuService.getMenusForMonth(month, year);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(menus);
+    }
+    
+    @GetMapping("/month/{month}/year/{year}/with-food-items")
+    @Operation(summary = "Get menus for a specific month and year with their food items and quantities")
+    public ResponseEntity<List<MenuDetail>> getMenusWithFoodItemsForMonth(@PathVariable Integer month,
+                                                                          @PathVariable Integer year) {
+        List<MenuDetail> menus = menuService.getMenusWithFoodItemsForMonth(month, year);
         return ResponseEntity.ok(menus);
     }
     
     @GetMapping("/period")
     @Operation(summary = "Get menus for a date range")
-    public ResponseEntity<List<Menu>> getMenusForPeriod(
+    public ResponseEntity<List<MenuSummary>> getMenusForPeriod(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Menu.MealType mealType) {
         
-        List<Menu> menus;
+        List<MenuSummary> menus;
         if (mealType != null) {
             menus = menuService.getMenusForPeriodAndMealType(startDate, endDate, mealType);
         } else {
@@ -75,18 +102,46 @@ public class MenuController {
         return ResponseEntity.ok(menus);
     }
     
+    @GetMapping("/period/with-food-items")
+    @Operation(summary = "Get menus for a date range with their food items and quantities")
+    public ResponseEntity<List<MenuDetail>> getMenusWithFoodItemsForPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Menu.MealType mealType) {
+        List<MenuDetail> menus = menuService.getMenusWithFoodItemsForPeriod(startDate, endDate, mealType);
+        return ResponseEntity.ok(menus);
+    }
+    
     @GetMapping("/current-week")
     @Operation(summary = "Get menus for current week")
-    public ResponseEntity<List<Menu>> getCurrentWeekMenus() {
-        List<Menu> menus = menuService.getCurrentWeekMenus();
+    public ResponseEntity<List<MenuSummary>> getCurrentWeekMenus(WebRequest request) {
+        // The same URL lists another week's menus once the week turns
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.MENUS)
+                .qualifiedBy(LocalDate.now().with(DayOfWeek.MONDAY));
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<MenuSummary> menus = menuService.getCurrentWeekMenus();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(menus);
+    }
+    
+    @GetMapping("/current-week/with-food-items")
+    @Operation(summary = "Get menus for current week with their food items and quantities")
+    public ResponseEntity<List<MenuDetail>> getCurrentWeekMenusWithFoodItems() {
+        List<MenuDetail> menus = menuService.getCurrentWeekMenusWithFoodItems();
         return ResponseEntity.ok(menus);
     }
     
     @GetMapping("/current-month")
     @Operation(summary = "Get menus for current month")
-    public ResponseEntity<List<Menu>> getCurrentMonthMenus() {
-        List<Menu> menus = menuService.getCurrentMonthMenus();
-        return ResponseEntity.ok(menus);
+    public ResponseEntity<List<MenuSummary>> getCurrentMonthMenus(WebRequest request) {
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.MENUS)
+                .qualifiedBy(YearMonth.now());
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<MenuSummary> menus = menuService.getCurrentMonthMenus();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(menus);
     }
     
     @PostMapping
@@ -0,0 +1,157 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.ReportJob;
+import com.middaymeal.entity.School;
+import com.middaymeal.service.RegisterExportService;
+import com.middaymeal.service.ReportJobService;
+import com.middaymeal.service.ReportingViewService;
+import com.middaymeal.service.SaturatedException;
+import com.middaymeal.service.SchoolService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Reports", description = "APIs for exporting registers and reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    
+    private final RegisterExportService registerExportService;
+    private final ReportingViewService reportingViewService;
+    private final SchoolService schoolService;
+    private final ReportJobService reportJobService;
+    
+    @Autowired
+    public ReportController(RegisterExportService registerExportService, ReportingViewService reportingViewService,
+                            SchoolService schoolService, ReportJobService reportJobService) {
+        this.registerExportService = registerExportService;
+        this.reportingViewService = reportingViewService;
+        this.schoolService = schoolService;
+        this.reportJobService = reportJobService;
+    }
+    
+    @GetMapping("/monthly-summary")
+    @Operation(summary = "Meal days, attendance and meals served per school for a month (refreshed shortly after changes)")
+    public ResponseEntity<?> getMonthlySummary(@RequestParam int year, @RequestParam int month) {
+        try {
+            return ResponseEntity.ok(reportingViewService.getMonthlySummary(YearMonth.of(year, month)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/food-consumption")
+    @Operation(summary = "Total quantity of each food item served so far (refreshed shortly after changes)")
+    public ResponseEntity<?> getFoodConsumption() {
+        try {
+            return ResponseEntity.ok(reportingViewService.getFoodConsumption());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/register/monthly/school/{schoolId}")
+    @Operation(summary = "Download the monthly MDM register of a school as Excel")
+    public ResponseEntity<StreamingResponseBody> exportSchoolRegister(
+            @PathVariable Long schoolId,
+            @RequestParam int year,
+            @RequestParam int month) {
+        Optional<School> school = schoolService.getSchoolById(schoolId);
+        if (school.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        YearMonth period = YearMonth.of(year, month);
+        String title = RegisterExportService.registerTitle(period, school.get().getName());
+        StreamingResponseBody body = outputStream ->
+                registerExportService.writeSchoolRegister(schoolId, period, title, outputStream);
+        return xlsx(title, body);
+    }
+    
+    @GetMapping("/register/monthly")
+    @Operation(summary = "Download the monthly MDM register of every school in a state and/or city as Excel")
+    public ResponseEntity<StreamingResponseBody> exportRegionRegister(
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String city,
+            @RequestParam int year,
+            @RequestParam int month) {
+        YearMonth period = YearMonth.of(year, month);
+        String scope = city != null ? city : state != null ? state : "ALL SCHOOLS";
+        String title = RegisterExportService.registerTitle(period, scope);
+        StreamingResponseBody body = outputStream ->
+                registerExportService.writeRegionRegister(state, city, period, title, outputStream);
+        return xlsx(title, body);
+    }
+    
+    @PostMapping("/{type}")
+    @Operation(summary = "Generate a report in the background (monthly-summary, food-consumption, school-register or region-register, parameters as for the direct endpoints): 202 with the job to poll, 200 when it was already generated from the same data")
+    public ResponseEntity<?> submitReport(@PathVariable String type, @RequestParam Map<String, String> params) {
+        Optional<ReportJobService.ReportType> reportType = ReportJobService.ReportType.of(type);
+        if (reportType.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            ReportJob job = reportJobService.submit(reportType.get(), params);
+            return ResponseEntity.status(job.status() == ReportJob.Status.DONE ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                    .body(job);
+        } catch (SaturatedException e) {
+            return SaturatedResponse.of(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Get a background report's status")
+    public ResponseEntity<ReportJob> getReportJob(@PathVariable String id) {
+        return reportJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/jobs/{id}/file")
+    @Operation(summary = "Download a background report once its job is done (409 until then)")
+    public ResponseEntity<?> downloadReport(@PathVariable String id) {
+        Optional<ReportJobService.ReportFile> file = reportJobService.findFile(id);
+        if (file.isEmpty()) {
+            return reportJobService.getJob(id)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.status(HttpStatus.CONFLICT).body("Report is " + job.status()))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(file.get().fileName(), StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.get().format().contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(new FileSystemResource(file.get().path()));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> xlsx(String title, StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(title + ".xlsx", StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .contentType(XLSX)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
\ No newline at end of file
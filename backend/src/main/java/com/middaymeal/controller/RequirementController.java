@@ -0,0 +1,42 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.RequirementPlan;
+import com.middaymeal.entity.Menu;
+import com.middaymeal.service.RequirementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/requirements")
+@Tag(name = "Food Requirements", description = "APIs for planning food quantities from the meal templates")
+@CrossOrigin(origins = "*")
+public class RequirementController {
+    
+    private final RequirementService requirementService;
+    
+    @Autowired
+    public RequirementController(RequirementService requirementService) {
+        this.requirementService = requirementService;
+    }
+    
+    @GetMapping("/monthly")
+    @Operation(summary = "Food quantities for a month, per school and in total, for a state/city or one school (all schools when omitted)")
+    public ResponseEntity<?> getMonthlyPlan(@RequestParam int year, @RequestParam int month,
+                                            @RequestParam(defaultValue = "LUNCH") Menu.MealType mealType,
+                                            @RequestParam(required = false) String state,
+                                            @RequestParam(required = false) String city,
+                                            @RequestParam(required = false) Long schoolId) {
+        try {
+            RequirementPlan plan = requirementService.getMonthlyPlan(YearMonth.of(year, month), mealType, state, city, schoolId);
+            return ResponseEntity.ok(plan);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
\ No newline at end of file
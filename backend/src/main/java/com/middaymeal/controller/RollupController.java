@@ -0,0 +1,56 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.service.MealRecordService;
+import com.middaymeal.service.MealRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rollups")
+@Tag(name = "Meal Rollups", description = "APIs for daily and monthly meal aggregates")
+@CrossOrigin(origins = "*")
+public class RollupController {
+    
+    private final MealRecordService mealRecordService;
+    private final MealRollupService mealRollupService;
+    
+    @Autowired
+    public RollupController(MealRecordService mealRecordService, MealRollupService mealRollupService) {
+        this.mealRecordService = mealRecordService;
+        this.mealRollupService = mealRollupService;
+    }
+    
+    @GetMapping("/totals")
+    @Operation(summary = "Get total meals served and students present for a date range")
+    public ResponseEntity<Map<String, Long>> getTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        totals.put("mealsServed", mealRecordService.getTotalMealsServedInPeriod(startDate, endDate));
+        totals.put("studentsPresent", mealRecordService.getTotalStudentsPresentInPeriod(startDate, endDate));
+        return ResponseEntity.ok(totals);
+    }
+    
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild daily and monthly rollups from meal records (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuild(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            mealRollupService.rebuildAll();
+        } else {
+            mealRollupService.rebuild(startDate, endDate);
+        }
+        return ResponseEntity.ok().build();
+    }
+}
\ No newline at end of file
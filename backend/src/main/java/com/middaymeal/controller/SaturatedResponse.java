@@ -0,0 +1,18 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.service.SaturatedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// The one answer to a saturated pool: 429, so clients back off and retry after the service's delay
+final class SaturatedResponse {
+    
+    private SaturatedResponse() {}
+    
+    static ResponseEntity<String> of(SaturatedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
\ No newline at end of file
@@ -1,14 +1,20 @@
 package com.middaymeal.controller;
 
+import com.middaymeal.dto.SchoolSummary;
 import com.middaymeal.entity.School;
+import com.middaymeal.service.ReferenceDataVersions;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
 import com.middaymeal.service.SchoolService;
+import com.middaymeal.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,17 +25,24 @@ import java.util.List;
 public class SchoolController {
     
     private final SchoolService schoolService;
+    private final ReferenceDataVersions referenceDataVersions;
     
     @Autowired
-    public SchoolController(SchoolService schoolService) {
+    public SchoolController(SchoolService schoolService, ReferenceDataVersions referenceDataVersions) {
         this.schoolService = schoolService;
+        this.referenceDataVersions = referenceDataVersions;
     }
     
     @GetMapping
-    @Operation(summary = "Get all active schools")
-    public ResponseEntity<List<School>> getAllSchools() {
-        List<School> schools = schoolService.getAllActiveSchools();
-        return ResponseEntity.ok(schools);
+    @Operation(summary = "Get all active schools (304 when the If-None-Match ETag is current)")
+    public ResponseEntity<List<SchoolSummary>> getAllSchools(WebRequest request) {
+        // Answered from the version alone when the client's copy is current: no query, no serialization
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.SCHOOLS);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<SchoolSummary> schools = schoolService.getAllActiveSchools();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(schools);
     }
     
     @GetMapping("/{id}")
@@ -78,23 +91,24 @@ public class SchoolController {
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search schools by name, code, or city")
-    public ResponseEntity<List<School>> searchSchools(@RequestParam String query) {
-        List<School> schools = schoolService.searchSchools(query);
+    @Operation(summary = "Search schools by name, code, or city (name prefix matches first)")
+    public ResponseEntity<List<SchoolSummary>> searchSchools(@RequestParam String query,
+                                                             @RequestParam(defaultValue = "" + SearchService.DEFAULT_LIMIT) int limit) {
+        List<SchoolSummary> schools = schoolService.searchSchools(query, limit);
         return ResponseEntity.ok(schools);
     }
     
     @GetMapping("/city/{city}")
     @Operation(summary = "Get schools by city")
-    public ResponseEntity<List<School>> getSchoolsByCity(@PathVariable String city) {
-        List<School> schools = schoolService.getSchoolsByCity(city);
+    public ResponseEntity<List<SchoolSummary>> getSchoolsByCity(@PathVariable String city) {
+        List<SchoolSummary> schools = schoolService.getSchoolsByCity(city);
         return ResponseEntity.ok(schools);
     }
     
     @GetMapping("/state/{state}")
     @Operation(summary = "Get schools by state")
-    public ResponseEntity<List<School>> getSchoolsByState(@PathVariable String state) {
-        List<School> schools = schoolService.getSchoolsByState(state);
+    public ResponseEntity<List<SchoolSummary>> getSchoolsByState(@PathVariable String state) {
+        List<SchoolSummary> schools = schoolService.getSchoolsByState(state);
         return ResponseEntity.ok(schools);
     }
     
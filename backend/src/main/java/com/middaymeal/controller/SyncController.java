@@ -0,0 +1,72 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.AuthenticatedUser;
+import com.middaymeal.dto.MealRecordRequest;
+import com.middaymeal.entity.User;
+import com.middaymeal.service.MealRecordService;
+import com.middaymeal.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/sync")
+@Tag(name = "Mobile Sync", description = "APIs for the mobile app's delta sync and offline uploads")
+@CrossOrigin(origins = "*")
+public class SyncController {
+    
+    private final SyncService syncService;
+    private final MealRecordService mealRecordService;
+    
+    @Autowired
+    public SyncController(SyncService syncService, MealRecordService mealRecordService) {
+        this.syncService = syncService;
+        this.mealRecordService = mealRecordService;
+    }
+    
+    @GetMapping
+    @Operation(summary = "Get a school's changes since a sync token (everything when no token is given)")
+    public ResponseEntity<?> getChanges(@AuthenticationPrincipal AuthenticatedUser user,
+                                        @RequestParam(required = false) String token,
+                                        @RequestParam(required = false) Long schoolId) {
+        if (user.role() == User.Role.ADMIN && schoolId == null) {
+            return ResponseEntity.badRequest().body("schoolId is required");
+        }
+        Long scope = user.role() == User.Role.ADMIN ? schoolId : user.schoolId();
+        if (scope == null) {
+            return ResponseEntity.badRequest().body("User is not assigned to a school");
+        }
+        if (schoolId != null && !schoolId.equals(scope)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to sync school " + schoolId);
+        }
+        try {
+            return ResponseEntity.ok(syncService.getChanges(scope, token));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/meal-records")
+    @Operation(summary = "Upload meal records entered offline; each is created or updated by school, menu and date, so a batch is safe to resend")
+    public ResponseEntity<?> uploadMealRecords(@AuthenticationPrincipal AuthenticatedUser user,
+                                               @RequestBody List<MealRecordRequest> requests) {
+        if (requests.size() > MealRecordService.MAX_BULK_ROWS) {
+            return ResponseEntity.badRequest()
+                    .body("At most " + MealRecordService.MAX_BULK_ROWS + " meal records can be submitted per request");
+        }
+        // Users other than admins may only upload their own school's records; others' rows are rejected
+        Long scope = user.role() == User.Role.ADMIN ? null : user.schoolId();
+        if (user.role() != User.Role.ADMIN && scope == null) {
+            return ResponseEntity.badRequest().body("User is not assigned to a school");
+        }
+        return ResponseEntity.ok(mealRecordService.submitMealRecords(requests, scope));
+    }
+}
\ No newline at end of file
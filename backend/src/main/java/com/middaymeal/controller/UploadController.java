@@ -0,0 +1,105 @@
+package com.middaymeal.controller;
+
+import com.middaymeal.dto.PhotoUpload;
+import com.middaymeal.service.PhotoStorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/upload")
+@Tag(name = "Uploads", description = "APIs for uploading and fetching meal photos")
+@CrossOrigin(origins = "*")
+public class UploadController {
+    
+    // Files are named by their content's hash, so a name always means the same bytes
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    
+    private final PhotoStorageService photoStorageService;
+    
+    @Autowired
+    public UploadController(PhotoStorageService photoStorageService) {
+        this.photoStorageService = photoStorageService;
+    }
+    
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload a meal photo (JPEG or PNG) as the multipart field file: 201 when stored, 200 when the same photo was stored before")
+    public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) throws IOException {
+        // The part is already on disk (multipart file-size-threshold 0), so it is read from there
+        return storeResponse(file.getInputStream());
+    }
+    
+    @PostMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    @Operation(summary = "Upload a meal photo as the request body, streamed to disk as it arrives")
+    public ResponseEntity<?> uploadPhoto(HttpServletRequest request) throws IOException {
+        return storeResponse(request.getInputStream());
+    }
+    
+    @GetMapping("/photos/{name}")
+    @Operation(summary = "Get a meal photo (supports Range requests; immutable, as the name is the content's hash)")
+    public ResponseEntity<Resource> getPhoto(@PathVariable String name) throws IOException {
+        Optional<PhotoStorageService.StoredFile> photo = photoStorageService.findPhoto(name);
+        if (photo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return fileResponse(photo.get(), IMMUTABLE);
+    }
+    
+    @GetMapping("/thumbnails/{name}")
+    @Operation(summary = "Get a meal photo's thumbnail (the photo itself until the thumbnail is ready)")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable String name) throws IOException {
+        Optional<PhotoStorageService.StoredFile> thumbnail = photoStorageService.findThumbnail(name);
+        if (thumbnail.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // The photo standing in for a thumbnail not drawn yet must not be cached in its place
+        boolean ready = photoStorageService.isThumbnail(thumbnail.get());
+        return fileResponse(thumbnail.get(), ready ? IMMUTABLE : CacheControl.noCache());
+    }
+    
+    // A multipart upload over spring.servlet.multipart.max-file-size, refused while it is being read
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<String> uploadTooLarge(MaxUploadSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Photo is too large");
+    }
+    
+    private ResponseEntity<?> storeResponse(InputStream body) throws IOException {
+        try (body) {
+            PhotoUpload upload = photoStorageService.store(body);
+            return ResponseEntity.status(upload.duplicate() ? HttpStatus.OK : HttpStatus.CREATED).body(upload);
+        } catch (PhotoStorageService.TooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Range, If-None-Match and If-Modified-Since are answered by MVC from the resource and these headers
+    private ResponseEntity<Resource> fileResponse(PhotoStorageService.StoredFile file,
+                                                  CacheControl cacheControl) throws IOException {
+        // Distinct for a thumbnail, so a photo that stood in for it does not revalidate as the thumbnail
+        String eTag = file.sha256() + (photoStorageService.isThumbnail(file) ? "-thumbnail" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.type().contentType()))
+                .cacheControl(cacheControl)
+                .eTag("\"" + eTag + "\"")
+                .lastModified(Files.getLastModifiedTime(file.path()).toMillis())
+                .body(new FileSystemResource(file.path()));
+    }
+}
\ No newline at end of file
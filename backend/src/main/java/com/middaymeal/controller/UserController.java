@@ -1,21 +1,28 @@
 package com.middaymeal.controller;
 
 import com.middaymeal.entity.User;
-import com.middaymeal.entity.School;
 import com.middaymeal.service.UserService;
-import com.middaymeal.service.SchoolService;
+import com.middaymeal.service.SaturatedException;
+import com.middaymeal.service.ReferenceDataVersions;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
+import com.middaymeal.dto.AuthenticatedUser;
 import com.middaymeal.dto.CreateUserRequest;
+import com.middaymeal.dto.UpdateUserRequest;
+import com.middaymeal.dto.UserPage;
+import com.middaymeal.dto.UserSummary;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/users")
@@ -24,25 +31,31 @@ import java.util.Optional;
 public class UserController {
     
     private final UserService userService;
-    private final SchoolService schoolService;
+    private final ReferenceDataVersions referenceDataVersions;
     
     @Autowired
-    public UserController(UserService userService, SchoolService schoolService) {
+    public UserController(UserService userService, ReferenceDataVersions referenceDataVersions) {
         this.userService = userService;
-        this.schoolService = schoolService;
+        this.referenceDataVersions = referenceDataVersions;
     }
     
     @GetMapping
-    @Operation(summary = "Get all users (Admin only)")
+    @Operation(summary = "Get all users (Admin only; 304 when the If-None-Match ETag is current)")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllActiveUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserSummary>> getAllUsers(WebRequest request) {
+        // Users are listed with their school's name
+        ReferenceDataVersions.Version version = referenceDataVersions.get(ReferenceData.USERS, ReferenceData.SCHOOLS);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        List<UserSummary> users = userService.getAllActiveUsers();
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(users);
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Get user by ID")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    @Operation(summary = "Get user by ID (Admin, or the user themselves)")
+    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
+    public ResponseEntity<UserSummary> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
                 .map(user -> ResponseEntity.ok(user))
                 .orElse(ResponseEntity.notFound().build());
@@ -53,50 +66,35 @@ public class UserController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createUser(@Valid @RequestBody CreateUserRequest request) {
         try {
-            // Check if username already exists
-            if (userService.existsByUsername(request.getUsername())) {
-                return ResponseEntity.badRequest().body("Username already exists");
-            }
-            
-            // Check if email already exists
-            if (request.getEmail() != null && userService.existsByEmail(request.getEmail())) {
-                return ResponseEntity.badRequest().body("Email already exists");
-            }
-            
-            // Create new user
-            User user = new User();
-            user.setUsername(request.getUsername());
-            user.setPassword(request.getPassword()); // Will be encoded by service
-            user.setFullName(request.getFullName());
-            user.setEmail(request.getEmail());
-            user.setPhone(request.getPhone());
-            user.setRole(request.getRole());
-            
-            // Set school if provided
-            if (request.getSchoolId() != null) {
-                Optional<School> school = schoolService.getSchoolById(request.getSchoolId());
-                if (school.isPresent()) {
-                    user.setSchool(school.get());
-                } else {
-                    return ResponseEntity.badRequest().body("School not found");
-                }
-            }
-            
-            User createdUser = userService.createUser(user);
-            return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
-            
+            User createdUser = userService.createUser(request);
+            return new ResponseEntity<>(new UserSummary(createdUser), HttpStatus.CREATED);
+        } catch (SaturatedException e) {
+            return SaturatedResponse.of(e);
+        } catch (IllegalArgumentException e) {
+            // Username or email taken, or an unknown school
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating user: " + e.getMessage());
         }
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update an existing user")
+    @Operation(summary = "Update an existing user (users may update their own name, contact details and password)")
     @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @Valid @RequestBody User userDetails) {
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request,
+                                        @AuthenticationPrincipal AuthenticatedUser caller) {
+        boolean admin = caller.role() == User.Role.ADMIN;
+        if (!admin && changesAccess(request, caller)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Only an admin can change a user's role, school or active state");
+        }
         try {
-            User updatedUser = userService.updateUser(id, userDetails);
-            return ResponseEntity.ok(updatedUser);
+            User updatedUser = userService.updateUser(id, request, admin);
+            return ResponseEntity.ok(new UserSummary(updatedUser));
+        } catch (SaturatedException e) {
+            return SaturatedResponse.of(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -117,30 +115,42 @@ public class UserController {
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search users by name or username")
+    @Operation(summary = "Search users by username, name or email, optionally filtered by role and school (paged)")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String query) {
-        List<User> users = userService.searchUsers(query);
+    public ResponseEntity<UserPage> searchUsers(@RequestParam(required = false) String query,
+                                                @RequestParam(required = false) User.Role role,
+                                                @RequestParam(required = false) Long schoolId,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        UserPage users = userService.searchUsers(query, role, schoolId, page, size);
         return ResponseEntity.ok(users);
     }
     
     @GetMapping("/school/{schoolId}")
-    @Operation(summary = "Get users by school")
-    public ResponseEntity<List<User>> getUsersBySchool(@PathVariable Long schoolId) {
-        List<User> users = userService.getUsersBySchool(schoolId);
+    @Operation(summary = "Get users by school (Admin, or the school's own users)")
+    @PreAuthorize("hasRole('ADMIN') or #schoolId == authentication.principal.schoolId")
+    public ResponseEntity<List<UserSummary>> getUsersBySchool(@PathVariable Long schoolId) {
+        List<UserSummary> users = userService.getUsersBySchool(schoolId);
         return ResponseEntity.ok(users);
     }
     
     @GetMapping("/role/{role}")
     @Operation(summary = "Get users by role (Admin only)")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable String role) {
+    public ResponseEntity<List<UserSummary>> getUsersByRole(@PathVariable String role) {
         try {
             User.Role userRole = User.Role.valueOf(role.toUpperCase());
-            List<User> users = userService.getUsersByRole(userRole);
+            List<UserSummary> users = userService.getUsersByRole(userRole);
             return ResponseEntity.ok(users);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    // A user editing themselves may send back their own role and school, but not different ones
+    private static boolean changesAccess(UpdateUserRequest request, AuthenticatedUser caller) {
+        return request.getRole() != null && request.getRole() != caller.role()
+                || request.getSchoolId() != null && !request.getSchoolId().equals(caller.schoolId())
+                || Boolean.FALSE.equals(request.getActive());
+    }
 }
\ No newline at end of file
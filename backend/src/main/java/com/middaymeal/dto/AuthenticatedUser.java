@@ -0,0 +1,6 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.User;
+
+// The caller of an API request, as read from the claims of their token
+public record AuthenticatedUser(Long id, String username, User.Role role, Long schoolId) {}
\ No newline at end of file
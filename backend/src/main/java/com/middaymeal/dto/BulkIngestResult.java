@@ -0,0 +1,82 @@
+package com.middaymeal.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResult {
+    
+    private int received;
+    private int created;
+    private int updated;
+    private int rejected;
+    private List<RowResult> rows = new ArrayList<>();
+    
+    // Constructors
+    public BulkIngestResult() {}
+    
+    public BulkIngestResult(int received) {
+        this.received = received;
+    }
+    
+    public void addCreated(int index, Long id) {
+        rows.add(new RowResult(index, RowStatus.CREATED, id, null));
+        created++;
+    }
+    
+    public void addUpdated(int index, Long id) {
+        rows.add(new RowResult(index, RowStatus.UPDATED, id, null));
+        updated++;
+    }
+    
+    public void addRejected(int index, String error) {
+        rows.add(new RowResult(index, RowStatus.REJECTED, null, error));
+        rejected++;
+    }
+    
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+    
+    public void setReceived(int received) {
+        this.received = received;
+    }
+    
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<RowResult> getRows() {
+        return rows;
+    }
+    
+    public void setRows(List<RowResult> rows) {
+        this.rows = rows;
+    }
+    
+    public enum RowStatus {
+        CREATED, UPDATED, REJECTED
+    }
+    
+    public record RowResult(int index, RowStatus status, Long id, String error) {}
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.middaymeal.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Outcome of repricing a month of meal records: how many were priced and how many had their costs
+// changed, and the month's costs after reconciliation
+public record CostReconciliation(int year, int month, Long schoolId, int records, int updated,
+                                 BigDecimal totalCost, BigDecimal cookingCost, List<String> warnings) {}
\ No newline at end of file
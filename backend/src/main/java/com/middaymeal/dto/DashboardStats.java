@@ -0,0 +1,62 @@
+package com.middaymeal.dto;
+
+public class DashboardStats {
+    
+    private long totalSchools;
+    private long activeUsers;
+    private long todayMeals;
+    private long weeklyMeals;
+    private long monthlyMeals;
+    
+    // Constructors
+    public DashboardStats() {}
+    
+    public DashboardStats(long totalSchools, long activeUsers, long todayMeals, long weeklyMeals, long monthlyMeals) {
+        this.totalSchools = totalSchools;
+        this.activeUsers = activeUsers;
+        this.todayMeals = todayMeals;
+        this.weeklyMeals = weeklyMeals;
+        this.monthlyMeals = monthlyMeals;
+    }
+    
+    // Getters and Setters
+    public long getTotalSchools() {
+        return totalSchools;
+    }
+    
+    public void setTotalSchools(long totalSchools) {
+        this.totalSchools = totalSchools;
+    }
+    
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+    
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+    
+    public long getTodayMeals() {
+        return todayMeals;
+    }
+    
+    public void setTodayMeals(long todayMeals) {
+        this.todayMeals = todayMeals;
+    }
+    
+    public long getWeeklyMeals() {
+        return weeklyMeals;
+    }
+    
+    public void setWeeklyMeals(long weeklyMeals) {
+        this.weeklyMeals = weeklyMeals;
+    }
+    
+    public long getMonthlyMeals() {
+        return monthlyMeals;
+    }
+    
+    public void setMonthlyMeals(long monthlyMeals) {
+        this.monthlyMeals = monthlyMeals;
+    }
+}
\ No newline at end of file
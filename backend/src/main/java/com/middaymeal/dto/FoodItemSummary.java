@@ -0,0 +1,13 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.FoodItem;
+
+// A food item as offered by the search box
+public record FoodItemSummary(Long id, String name, String nameMarathi, FoodItem.FoodCategory category,
+                              FoodItem.Unit unit) {
+    
+    public FoodItemSummary(FoodItem foodItem) {
+        this(foodItem.getId(), foodItem.getName(), foodItem.getNameMarathi(), foodItem.getCategory(),
+                foodItem.getUnit());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.User;
+
+import java.time.Instant;
+
+public class LoginResponse {
+    
+    private String token;
+    private String tokenType = "Bearer";
+    private Instant expiresAt;
+    private UserInfo user;
+    
+    public record UserInfo(Long id, String username, String fullName, String email, User.Role role,
+                           Long schoolId, String schoolName) {}
+    
+    // Constructors
+    public LoginResponse() {}
+    
+    public LoginResponse(String token, Instant expiresAt, UserInfo user) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+        this.user = user;
+    }
+    
+    // Getters and Setters
+    public String getToken() {
+        return token;
+    }
+    
+    public void setToken(String token) {
+        this.token = token;
+    }
+    
+    public String getTokenType() {
+        return tokenType;
+    }
+    
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public UserInfo getUser() {
+        return user;
+    }
+    
+    public void setUser(UserInfo user) {
+        this.user = user;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.middaymeal.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Rates in rupees per student per day. id and version are assigned when a rate is added; a rate for an
+// effective date that already has one becomes its next version.
+public record MealCostRate(Long id,
+                           @NotNull(message = "Effective date is required") LocalDate effectiveFrom,
+                           Integer version,
+                           @NotNull(message = "Grade 1-5 rate is required") @DecimalMin("0.00") @Digits(integer = 6, fraction = 2)
+                           BigDecimal grade1To5Rate,
+                           @NotNull(message = "Grade 6-8 rate is required") @DecimalMin("0.00") @Digits(integer = 6, fraction = 2)
+                           BigDecimal grade6To8Rate,
+                           @DecimalMin("0.00") @Digits(integer = 6, fraction = 2) BigDecimal grade1To5CookingRate,
+                           @DecimalMin("0.00") @Digits(integer = 6, fraction = 2) BigDecimal grade6To8CookingRate,
+                           String notes) {}
\ No newline at end of file
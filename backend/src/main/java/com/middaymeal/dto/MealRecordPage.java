@@ -0,0 +1,60 @@
+package com.middaymeal.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class MealRecordPage {
+    
+    private List<MealRecordResponse> records;
+    
+    // Cursor to pass back as afterDate/afterId for the next page
+    private LocalDate nextAfterDate;
+    private Long nextAfterId;
+    private boolean hasMore;
+    
+    // Constructors
+    public MealRecordPage() {}
+    
+    public MealRecordPage(List<MealRecordResponse> records, boolean hasMore) {
+        this.records = records;
+        this.hasMore = hasMore;
+        if (!records.isEmpty()) {
+            MealRecordResponse last = records.get(records.size() - 1);
+            this.nextAfterDate = last.getDate();
+            this.nextAfterId = last.getId();
+        }
+    }
+    
+    // Getters and Setters
+    public List<MealRecordResponse> getRecords() {
+        return records;
+    }
+    
+    public void setRecords(List<MealRecordResponse> records) {
+        this.records = records;
+    }
+    
+    public LocalDate getNextAfterDate() {
+        return nextAfterDate;
+    }
+    
+    public void setNextAfterDate(LocalDate nextAfterDate) {
+        this.nextAfterDate = nextAfterDate;
+    }
+    
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+    
+    public void setNextAfterId(Long nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
\ No newline at end of file
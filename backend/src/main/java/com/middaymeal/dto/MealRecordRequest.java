@@ -0,0 +1,133 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.MealRecord;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public class MealRecordRequest {
+    
+    @NotNull(message = "School is required")
+    private Long schoolId;
+    
+    @NotNull(message = "Menu is required")
+    private Long menuId;
+    
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+    
+    @NotNull(message = "Students present is required")
+    @Min(value = 0, message = "Students present must not be negative")
+    private Integer studentsPresent;
+    
+    @NotNull(message = "Meals served is required")
+    @Min(value = 0, message = "Meals served must not be negative")
+    private Integer mealsServed;
+    
+    @Min(value = 0, message = "Grade 1-5 attendance must not be negative")
+    private Integer grade1To5Present;
+    
+    @Min(value = 0, message = "Grade 6-8 attendance must not be negative")
+    private Integer grade6To8Present;
+    
+    private String teacherInCharge;
+    
+    private String remarks;
+    
+    private String photoUrl;
+    
+    private MealRecord.MealQuality mealQuality;
+    
+    // Constructors
+    public MealRecordRequest() {}
+    
+    // Getters and Setters
+    public Long getSchoolId() {
+        return schoolId;
+    }
+    
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+    
+    public Long getMenuId() {
+        return menuId;
+    }
+    
+    public void setMenuId(Long menuId) {
+        this.menuId = menuId;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Integer getStudentsPresent() {
+        return studentsPresent;
+    }
+    
+    public void setStudentsPresent(Integer studentsPresent) {
+        this.studentsPresent = studentsPresent;
+    }
+    
+    public Integer getMealsServed() {
+        return mealsServed;
+    }
+    
+    public void setMealsServed(Integer mealsServed) {
+        this.mealsServed = mealsServed;
+    }
+    
+    public Integer getGrade1To5Present() {
+        return grade1To5Present;
+    }
+    
+    public void setGrade1To5Present(Integer grade1To5Present) {
+        this.grade1To5Present = grade1To5Present;
+    }
+    
+    public Integer getGrade6To8Present() {
+        return grade6To8Present;
+    }
+    
+    public void setGrade6To8Present(Integer grade6To8Present) {
+        this.grade6To8Present = grade6To8Present;
+    }
+    
+    public String getTeacherInCharge() {
+        return teacherInCharge;
+    }
+    
+    public void setTeacherInCharge(String teacherInCharge) {
+        this.teacherInCharge = teacherInCharge;
+    }
+    
+    public String getRemarks() {
+        return remarks;
+    }
+    
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+    
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+    
+    public void setPhotoUrl(String photoUrl) {
+        this.photoUrl = photoUrl;
+    }
+    
+    public MealRecord.MealQuality getMealQuality() {
+        return mealQuality;
+    }
+    
+    public void setMealQuality(MealRecord.MealQuality mealQuality) {
+        this.mealQuality = mealQuality;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.MealRecord;
+
+import java.time.LocalDate;
+
+public class MealRecordResponse {
+    
+    private Long id;
+    private Long schoolId;
+    private Long menuId;
+    private LocalDate date;
+    private Integer studentsPresent;
+    private Integer mealsServed;
+    private Integer grade1To5Present;
+    private Integer grade6To8Present;
+    private String teacherInCharge;
+    private String remarks;
+    private String photoUrl;
+    private MealRecord.MealQuality mealQuality;
+    
+    // Constructors
+    public MealRecordResponse() {}
+    
+    public MealRecordResponse(MealRecord mealRecord) {
+        // getId() on the lazy school/menu proxies does not initialize them
+        this.id = mealRecord.getId();
+        this.schoolId = mealRecord.getSchool() != null ? mealRecord.getSchool().getId() : null;
+        this.menuId = mealRecord.getMenu() != null ? mealRecord.getMenu().getId() : null;
+        this.date = mealRecord.getDate();
+        this.studentsPresent = mealRecord.getStudentsPresent();
+        this.mealsServed = mealRecord.getMealsServed();
+        this.grade1To5Present = mealRecord.getGrade1To5Present();
+        this.grade6To8Present = mealRecord.getGrade6To8Present();
+        this.teacherInCharge = mealRecord.getTeacherInCharge();
+        this.remarks = mealRecord.getRemarks();
+        this.photoUrl = mealRecord.getPhotoUrl();
+        this.mealQuality = mealRecord.getMealQuality();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSchoolId() {
+        return schoolId;
+    }
+    
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+    
+    public Long getMenuId() {
+        return menuId;
+    }
+    
+    public void setMenuId(Long menuId) {
+        this.menuId = menuId;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Integer getStudentsPresent() {
+        return studentsPresent;
+    }
+    
+    public void setStudentsPresent(Integer studentsPresent) {
+        this.studentsPresent = studentsPresent;
+    }
+    
+    public Integer getMealsServed() {
+        return mealsServed;
+    }
+    
+    public void setMealsServed(Integer mealsServed) {
+        this.mealsServed = mealsServed;
+    }
+    
+    public Integer getGrade1To5Present() {
+        return grade1To5Present;
+    }
+    
+    public void setGrade1To5Present(Integer grade1To5Present) {
+        this.grade1To5Present = grade1To5Present;
+    }
+    
+    public Integer getGrade6To8Present() {
+        return grade6To8Present;
+    }
+    
+    public void setGrade6To8Present(Integer grade6To8Present) {
+        this.grade6To8Present = grade6To8Present;
+    }
+    
+    public String getTeacherInCharge() {
+        return teacherInCharge;
+    }
+    
+    public void setTeacherInCharge(String teacherInCharge) {
+        this.teacherInCharge = teacherInCharge;
+    }
+    
+    public String getRemarks() {
+        return remarks;
+    }
+    
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+    
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+    
+    public void setPhotoUrl(String photoUrl) {
+        this.photoUrl = photoUrl;
+    }
+    
+    public MealRecord.MealQuality getMealQuality() {
+        return mealQuality;
+    }
+    
+    public void setMealQuality(MealRecord.MealQuality mealQuality) {
+        this.mealQuality = mealQuality;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.entity.Menu;
+import com.middaymeal.entity.MenuFoodItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// A menu with its food items and per-student quantities. Built from a menu whose food items were
+// fetched with it (see MenuRepository), so mapping does not trigger further queries
+public record MenuDetail(Long id, LocalDate date, Menu.MealType mealType, String menuDescription,
+                         String menuDescriptionMarathi, List<Item> menuFoodItems) {
+    
+    public record Item(Long id, FoodItemRef foodItem, BigDecimal quantityPerStudent, String notes) {
+        
+        public Item(MenuFoodItem menuFoodItem) {
+            this(menuFoodItem.getId(), new FoodItemRef(menuFoodItem.getFoodItem()),
+                    menuFoodItem.getQuantityPerStudent(), menuFoodItem.getNotes());
+        }
+    }
+    
+    public record FoodItemRef(Long id, String name, String nameMarathi, FoodItem.Unit unit) {
+        
+        public FoodItemRef(FoodItem foodItem) {
+            this(foodItem.getId(), foodItem.getName(), foodItem.getNameMarathi(), foodItem.getUnit());
+        }
+    }
+    
+    public MenuDetail(Menu menu) {
+        this(menu.getId(), menu.getDate(), menu.getMealType(), menu.getMenuDescription(),
+                menu.getMenuDescriptionMarathi(), menu.getMenuFoodItems().stream().map(Item::new).toList());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.Menu;
+
+import java.time.LocalDate;
+
+// A menu as listed by date, without its food items
+public record MenuSummary(Long id, LocalDate date, Menu.MealType mealType, String menuDescription,
+                          String menuDescriptionMarathi) {}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.middaymeal.dto;
+
+// A stored meal photo. Files are named by the SHA-256 of their content, so sending the same photo again
+// (a retried upload) stores nothing new and answers the same urls, with duplicate set. The urls are
+// relative to the API root, like photoUrl on a meal record.
+public record PhotoUpload(String sha256, String url, String thumbnailUrl, String contentType, long size,
+                          boolean duplicate) {}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.middaymeal.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+// A report generated in the background (POST /reports/{type}). Poll it until status is DONE, then fetch
+// downloadUrl (relative to the API root); a report already generated from the same data is DONE at once.
+public record ReportJob(String id, String type, Map<String, String> params, Status status, Instant submittedAt,
+                        Instant startedAt, Instant finishedAt, String downloadUrl, String error) {
+    
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.middaymeal.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+// Rows read from a reporting materialized view. refreshedAt is this instance's last refresh of it (null
+// when it has not refreshed it since starting); refreshPending means changes are waiting to be included.
+public record ReportView<T>(List<T> rows, Instant refreshedAt, boolean refreshPending) {
+    
+    public record MonthlySummary(Long schoolId, String schoolName, String schoolCode, LocalDate month,
+                                 long totalMealDays, long totalStudentsPresent, long totalMealsServed,
+                                 BigDecimal avgDailyAttendance) {}
+    
+    public record FoodConsumption(Long foodItemId, String name, String nameMarathi, String category, String unit,
+                                  BigDecimal totalQuantityConsumed, long daysServed, BigDecimal avgQuantityPerStudent) {}
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.Menu;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Food needed to serve a month of the template calendar, per school and for all the schools together.
+// Quantities are in the food item's own unit (kg, litre, ...).
+public record RequirementPlan(int year, int month, Menu.MealType mealType, int servingDays,
+                              List<ItemQuantity> totals, List<Day> days, List<SchoolRequirement> schools,
+                              List<String> warnings) {
+    
+    public record ItemQuantity(Long foodItemId, String name, String nameMarathi, String unit, BigDecimal quantity) {}
+    
+    // One serving day for all the schools in the plan
+    public record Day(LocalDate date, Long templateId, String templateName, List<ItemQuantity> quantities) {}
+    
+    public record SchoolRequirement(Long schoolId, String name, int grade1To5, int grade6To8,
+                                    List<ItemQuantity> quantities) {}
+}
\ No newline at end of file
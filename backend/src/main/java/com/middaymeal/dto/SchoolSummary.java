@@ -0,0 +1,16 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.School;
+
+// The columns the school lists show; selected straight into the record, so the school's students
+// and meal records are never touched
+public record SchoolSummary(Long id, String name, String code, String address, String city, String state,
+                            String phone, String email, String principalName, Integer totalStudents,
+                            Boolean active) {
+    
+    public SchoolSummary(School school) {
+        this(school.getId(), school.getName(), school.getCode(), school.getAddress(), school.getCity(),
+                school.getState(), school.getPhone(), school.getEmail(), school.getPrincipalName(),
+                school.getTotalStudents(), school.getActive());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.middaymeal.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// What changed for a school since its last sync. token goes with the next sync; full means these rows
+// replace everything the client holds (a first sync, or a token older than the deletions kept).
+public record SyncChanges(String token, boolean full, List<SchoolSummary> schools, List<MenuSummary> menus,
+                          List<MenuFoodItem> menuFoodItems, List<FoodItemSummary> foodItems,
+                          List<MealRecordResponse> mealRecords, Deleted deleted) {
+    
+    public record MenuFoodItem(Long id, Long menuId, Long foodItemId, BigDecimal quantityPerStudent, String notes) {}
+    
+    // Ids to drop: rows deleted, and schools, menus and food items deactivated since the last sync
+    public record Deleted(List<Long> schools, List<Long> menus, List<Long> menuFoodItems, List<Long> foodItems,
+                          List<Long> mealRecords) {}
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.User;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+// The fields of a user that can be changed. Users editing themselves may change their name, contact
+// details and password; role, school and active are for admins (a user may send their own back unchanged).
+public class UpdateUserRequest {
+    
+    @NotBlank(message = "Full name is required")
+    @Size(max = 255, message = "Full name must not exceed 255 characters")
+    private String fullName;
+    
+    @Email(message = "Email should be valid")
+    private String email;
+    
+    private String phone;
+    
+    // Left unchanged when empty
+    private String password;
+    
+    private User.Role role;
+    
+    private Long schoolId;
+    
+    private Boolean active;
+    
+    // Getters and Setters
+    public String getFullName() {
+        return fullName;
+    }
+    
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public void setPassword(String password) {
+        this.password = password;
+    }
+    
+    public User.Role getRole() {
+        return role;
+    }
+    
+    public void setRole(User.Role role) {
+        this.role = role;
+    }
+    
+    public Long getSchoolId() {
+        return schoolId;
+    }
+    
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+}
\ No newline at end of file
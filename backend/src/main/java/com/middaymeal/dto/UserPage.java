@@ -0,0 +1,64 @@
+package com.middaymeal.dto;
+
+import java.util.List;
+
+public class UserPage {
+    
+    private List<UserSummary> users;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    
+    // Constructors
+    public UserPage() {}
+    
+    public UserPage(List<UserSummary> users, int page, int size, long totalElements) {
+        this.users = users;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = (int) ((totalElements + size - 1) / size);
+    }
+    
+    // Getters and Setters
+    public List<UserSummary> getUsers() {
+        return users;
+    }
+    
+    public void setUsers(List<UserSummary> users) {
+        this.users = users;
+    }
+    
+    public int getPage() {
+        return page;
+    }
+    
+    public void setPage(int page) {
+        this.page = page;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public long getTotalElements() {
+        return totalElements;
+    }
+    
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+    
+    public int getTotalPages() {
+        return totalPages;
+    }
+    
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+}
\ No newline at end of file
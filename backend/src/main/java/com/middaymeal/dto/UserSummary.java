@@ -0,0 +1,24 @@
+package com.middaymeal.dto;
+
+import com.middaymeal.entity.User;
+
+// A user as listed in user management; never carries the password hash
+public record UserSummary(Long id, String username, String fullName, String email, String phone,
+                          User.Role role, Boolean active, SchoolRef school) {
+    
+    public record SchoolRef(Long id, String name) {}
+    
+    // Used by the repository's constructor expression, which selects the school's columns flat
+    public UserSummary(Long id, String username, String fullName, String email, String phone,
+                       User.Role role, Boolean active, Long schoolId, String schoolName) {
+        this(id, username, fullName, email, phone, role, active,
+                schoolId != null ? new SchoolRef(schoolId, schoolName) : null);
+    }
+    
+    // For a user just saved, whose school is loaded with it
+    public UserSummary(User user) {
+        this(user.getId(), user.getUsername(), user.getFullName(), user.getEmail(), user.getPhone(), user.getRole(),
+                user.getActive(), user.getSchool() != null ? user.getSchool().getId() : null,
+                user.getSchool() != null ? user.getSchool().getName() : null);
+    }
+}
\ No newline at end of file
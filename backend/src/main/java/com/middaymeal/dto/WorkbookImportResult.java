@@ -0,0 +1,113 @@
+package com.middaymeal.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WorkbookImportResult {
+    
+    private boolean dryRun;
+    private Long schoolId;
+    private int daysRead;
+    private int holidays;
+    private int menusCreated;
+    private int menusReused;
+    private int menuFoodItemsCreated;
+    
+    // Row indexes in the meal record report are worksheet row numbers of the register sheet
+    private BulkIngestResult mealRecords;
+    private List<String> warnings = new ArrayList<>();
+    
+    // Constructors
+    public WorkbookImportResult() {}
+    
+    public WorkbookImportResult(Long schoolId, boolean dryRun) {
+        this.schoolId = schoolId;
+        this.dryRun = dryRun;
+    }
+    
+    public void menuCreated(int foodItems) {
+        menusCreated++;
+        menuFoodItemsCreated += foodItems;
+    }
+    
+    public void menuReused() {
+        menusReused++;
+    }
+    
+    public void addWarning(String warning) {
+        warnings.add(warning);
+    }
+    
+    // Getters and Setters
+    public boolean isDryRun() {
+        return dryRun;
+    }
+    
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+    
+    public Long getSchoolId() {
+        return schoolId;
+    }
+    
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+    
+    public int getDaysRead() {
+        return daysRead;
+    }
+    
+    public void setDaysRead(int daysRead) {
+        this.daysRead = daysRead;
+    }
+    
+    public int getHolidays() {
+        return holidays;
+    }
+    
+    public void setHolidays(int holidays) {
+        this.holidays = holidays;
+    }
+    
+    public int getMenusCreated() {
+        return menusCreated;
+    }
+    
+    public void setMenusCreated(int menusCreated) {
+        this.menusCreated = menusCreated;
+    }
+    
+    public int getMenusReused() {
+        return menusReused;
+    }
+    
+    public void setMenusReused(int menusReused) {
+        this.menusReused = menusReused;
+    }
+    
+    public int getMenuFoodItemsCreated() {
+        return menuFoodItemsCreated;
+    }
+    
+    public void setMenuFoodItemsCreated(int menuFoodItemsCreated) {
+        this.menuFoodItemsCreated = menuFoodItemsCreated;
+    }
+    
+    public BulkIngestResult getMealRecords() {
+        return mealRecords;
+    }
+    
+    public void setMealRecords(BulkIngestResult mealRecords) {
+        this.mealRecords = mealRecords;
+    }
+    
+    public List<String> getWarnings() {
+        return warnings;
+    }
+    
+    public void setWarnings(List<String> warnings) {
+        this.warnings = warnings;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.middaymeal.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "daily_summaries", uniqueConstraints = {
+        @UniqueConstraint(name = "daily_summaries_school_id_date_key", columnNames = {"school_id", "date"})
+}, indexes = {
+        @Index(name = "idx_daily_summaries_date", columnList = "date")
+})
+public class DailySummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "school_id", nullable = false)
+    private School school;
+    
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+    
+    @Column(name = "record_count", nullable = false)
+    private Integer recordCount;
+    
+    @Column(name = "meals_served", nullable = false)
+    private Long mealsServed;
+    
+    @Column(name = "students_present", nullable = false)
+    private Long studentsPresent;
+    
+    @Column(name = "food_cost", precision = 12, scale = 2, nullable = false)
+    private BigDecimal foodCost;
+    
+    @Column(name = "cooking_cost", precision = 12, scale = 2, nullable = false)
+    private BigDecimal cookingCost;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public DailySummary() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public School getSchool() {
+        return school;
+    }
+    
+    public void setSchool(School school) {
+        this.school = school;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Integer getRecordCount() {
+        return recordCount;
+    }
+    
+    public void setRecordCount(Integer recordCount) {
+        this.recordCount = recordCount;
+    }
+    
+    public Long getMealsServed() {
+        return mealsServed;
+    }
+    
+    public void setMealsServed(Long mealsServed) {
+        this.mealsServed = mealsServed;
+    }
+    
+    public Long getStudentsPresent() {
+        return studentsPresent;
+    }
+    
+    public void setStudentsPresent(Long studentsPresent) {
+        this.studentsPresent = studentsPresent;
+    }
+    
+    public BigDecimal getFoodCost() {
+        return foodCost;
+    }
+    
+    public void setFoodCost(BigDecimal foodCost) {
+        this.foodCost = foodCost;
+    }
+    
+    public BigDecimal getCookingCost() {
+        return cookingCost;
+    }
+    
+    public void setCookingCost(BigDecimal cookingCost) {
+        this.cookingCost = cookingCost;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
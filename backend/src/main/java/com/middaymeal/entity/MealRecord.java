@@ -4,11 +4,25 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "meal_records")
-public class MealRecord extends BaseEntity {
+@Table(name = "meal_records", uniqueConstraints = {
+        // One record per school, menu and day: the conflict target of MealRecordService's upsert
+        @UniqueConstraint(name = "meal_records_school_id_menu_id_date_key", columnNames = {"school_id", "menu_id", "date"})
+}, indexes = {
+        @Index(name = "idx_meal_records_date_id", columnList = "date, id"),
+        @Index(name = "idx_meal_records_school_date_id", columnList = "school_id, date, id")
+})
+public class MealRecord extends AuditableEntity {
+    
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts; the database
+    // sequence must be altered to INCREMENT BY the same allocation size
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_records_id_seq")
+    @SequenceGenerator(name = "meal_records_id_seq", sequenceName = "meal_records_id_seq", allocationSize = 50)
+    private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "school_id", nullable = false)
@@ -30,6 +44,15 @@ public class MealRecord extends BaseEntity {
     @Column(name = "meals_served", nullable = false)
     private Integer mealsServed;
     
+    // Attendance by grade band, which sets the per-student cost rate (see MealCostService)
+    @Min(0)
+    @Column(name = "grade_1_5_present")
+    private Integer grade1To5Present;
+    
+    @Min(0)
+    @Column(name = "grade_6_8_present")
+    private Integer grade6To8Present;
+    
     @Column(name = "teacher_in_charge")
     private String teacherInCharge;
     
@@ -43,6 +66,12 @@ public class MealRecord extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private MealQuality mealQuality;
     
+    @Column(name = "total_cost", precision = 12, scale = 2)
+    private BigDecimal totalCost;
+    
+    @Column(name = "cooking_cost", precision = 10, scale = 2)
+    private BigDecimal cookingCost;
+    
     // Enums
     public enum MealQuality {
         EXCELLENT, GOOD, AVERAGE, POOR
@@ -60,6 +89,16 @@ public class MealRecord extends BaseEntity {
     }
     
     // Getters and Setters
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     public School getSchool() {
         return school;
     }
@@ -100,6 +139,22 @@ public class MealRecord extends BaseEntity {
         this.mealsServed = mealsServed;
     }
     
+    public Integer getGrade1To5Present() {
+        return grade1To5Present;
+    }
+    
+    public void setGrade1To5Present(Integer grade1To5Present) {
+        this.grade1To5Present = grade1To5Present;
+    }
+    
+    public Integer getGrade6To8Present() {
+        return grade6To8Present;
+    }
+    
+    public void setGrade6To8Present(Integer grade6To8Present) {
+        this.grade6To8Present = grade6To8Present;
+    }
+    
     public String getTeacherInCharge() {
         return teacherInCharge;
     }
@@ -131,4 +186,20 @@ public class MealRecord extends BaseEntity {
     public void setMealQuality(MealQuality mealQuality) {
         this.mealQuality = mealQuality;
     }
+    
+    public BigDecimal getTotalCost() {
+        return totalCost;
+    }
+    
+    public void setTotalCost(BigDecimal totalCost) {
+        this.totalCost = totalCost;
+    }
+    
+    public BigDecimal getCookingCost() {
+        return cookingCost;
+    }
+    
+    public void setCookingCost(BigDecimal cookingCost) {
+        this.cookingCost = cookingCost;
+    }
 }
\ No newline at end of file
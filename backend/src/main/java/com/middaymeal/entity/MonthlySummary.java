@@ -0,0 +1,140 @@
+package com.middaymeal.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "monthly_summaries", uniqueConstraints = {
+        @UniqueConstraint(name = "monthly_summaries_school_id_year_month_key", columnNames = {"school_id", "year", "month"})
+})
+public class MonthlySummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "school_id", nullable = false)
+    private School school;
+    
+    @Column(name = "year", nullable = false)
+    private Integer year;
+    
+    @Column(name = "month", nullable = false)
+    private Integer month;
+    
+    @Column(name = "total_meal_days")
+    private Integer totalMealDays;
+    
+    @Column(name = "total_meals_served")
+    private Integer totalMealsServed;
+    
+    @Column(name = "total_students_present")
+    private Long totalStudentsPresent;
+    
+    @Column(name = "average_attendance", precision = 8, scale = 2)
+    private BigDecimal averageAttendance;
+    
+    @Column(name = "total_food_cost", precision = 12, scale = 2)
+    private BigDecimal totalFoodCost;
+    
+    @Column(name = "total_cooking_cost", precision = 12, scale = 2)
+    private BigDecimal totalCookingCost;
+    
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+    
+    // Constructors
+    public MonthlySummary() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public School getSchool() {
+        return school;
+    }
+    
+    public void setSchool(School school) {
+        this.school = school;
+    }
+    
+    public Integer getYear() {
+        return year;
+    }
+    
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+    
+    public Integer getMonth() {
+        return month;
+    }
+    
+    public void setMonth(Integer month) {
+        this.month = month;
+    }
+    
+    public Integer getTotalMealDays() {
+        return totalMealDays;
+    }
+    
+    public void setTotalMealDays(Integer totalMealDays) {
+        this.totalMealDays = totalMealDays;
+    }
+    
+    public Integer getTotalMealsServed() {
+        return totalMealsServed;
+    }
+    
+    public void setTotalMealsServed(Integer totalMealsServed) {
+        this.totalMealsServed = totalMealsServed;
+    }
+    
+    public Long getTotalStudentsPresent() {
+        return totalStudentsPresent;
+    }
+    
+    public void setTotalStudentsPresent(Long totalStudentsPresent) {
+        this.totalStudentsPresent = totalStudentsPresent;
+    }
+    
+    public BigDecimal getAverageAttendance() {
+        return averageAttendance;
+    }
+    
+    public void setAverageAttendance(BigDecimal averageAttendance) {
+        this.averageAttendance = averageAttendance;
+    }
+    
+    public BigDecimal getTotalFoodCost() {
+        return totalFoodCost;
+    }
+    
+    public void setTotalFoodCost(BigDecimal totalFoodCost) {
+        this.totalFoodCost = totalFoodCost;
+    }
+    
+    public BigDecimal getTotalCookingCost() {
+        return totalCookingCost;
+    }
+    
+    public void setTotalCookingCost(BigDecimal totalCookingCost) {
+        this.totalCookingCost = totalCookingCost;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
\ No newline at end of file
@@ -43,6 +43,13 @@ public class School extends BaseEntity {
     @Column(name = "total_students")
     private Integer totalStudents;
     
+    // Enrolment by grade band, which sets the per-student food norms (see grain_requirements.sql)
+    @Column(name = "grade_1_5_count")
+    private Integer grade1To5Count;
+    
+    @Column(name = "grade_6_8_count")
+    private Integer grade6To8Count;
+    
     @Column(name = "active", nullable = false)
     private Boolean active = true;
     
@@ -142,6 +149,22 @@ public class School extends BaseEntity {
         this.totalStudents = totalStudents;
     }
     
+    public Integer getGrade1To5Count() {
+        return grade1To5Count;
+    }
+    
+    public void setGrade1To5Count(Integer grade1To5Count) {
+        this.grade1To5Count = grade1To5Count;
+    }
+    
+    public Integer getGrade6To8Count() {
+        return grade6To8Count;
+    }
+    
+    public void setGrade6To8Count(Integer grade6To8Count) {
+        this.grade6To8Count = grade6To8Count;
+    }
+    
     public Boolean getActive() {
         return active;
     }
@@ -0,0 +1,35 @@
+package com.middaymeal.repository;
+
+import com.middaymeal.entity.DailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySummaryRepository extends JpaRepository<DailySummary, Long> {
+    
+    List<DailySummary> findBySchoolIdAndDateBetweenOrderByDate(Long schoolId, LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT COALESCE(SUM(ds.mealsServed), 0) FROM DailySummary ds WHERE ds.date BETWEEN :startDate AND :endDate")
+    Long sumMealsServed(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT COALESCE(SUM(ds.studentsPresent), 0) FROM DailySummary ds WHERE ds.date BETWEEN :startDate AND :endDate")
+    Long sumStudentsPresent(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query(value = "DELETE FROM daily_summaries WHERE date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    int deleteInPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO daily_summaries (school_id, date, record_count, meals_served, students_present, food_cost, cooking_cost, updated_at) " +
+                   "SELECT school_id, date, COUNT(*), SUM(meals_served), SUM(students_present), " +
+                   "COALESCE(SUM(total_cost), 0), COALESCE(SUM(cooking_cost), 0), CURRENT_TIMESTAMP " +
+                   "FROM meal_records WHERE date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY school_id, date", nativeQuery = true)
+    int rebuildFromMealRecords(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.middaymeal.repository;
 
+import com.middaymeal.dto.FoodItemSummary;
 import com.middaymeal.entity.FoodItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,8 +19,16 @@ public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
     
     List<FoodItem> findByCategoryAndActiveTrue(FoodItem.FoodCategory category);
     
-    @Query("SELECT f FROM FoodItem f WHERE f.active = true AND " +
-           "(LOWER(f.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(f.nameMarathi) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<FoodItem> searchFoodItems(@Param("search") String search);
+    @Query("SELECT new com.middaymeal.dto.FoodItemSummary(f.id, f.name, f.nameMarathi, f.category, f.unit) " +
+           "FROM FoodItem f WHERE f.active = true")
+    List<FoodItemSummary> findActiveSummaries();
+    
+    // Same shape as SchoolRepository.searchSchools, over idx_food_items_search_trgm
+    @Query("SELECT new com.middaymeal.dto.FoodItemSummary(f.id, f.name, f.nameMarathi, f.category, f.unit) " +
+           "FROM FoodItem f WHERE f.active = true AND " +
+           "LOWER(CONCAT(f.name, ' ', COALESCE(f.nameMarathi, ''))) LIKE :contains ESCAPE '!' " +
+           "ORDER BY CASE WHEN LOWER(f.name) LIKE :prefix ESCAPE '!' THEN 0 " +
+           "WHEN LOWER(f.nameMarathi) LIKE :prefix ESCAPE '!' THEN 1 ELSE 2 END, f.name")
+    List<FoodItemSummary> searchFoodItems(@Param("contains") String contains, @Param("prefix") String prefix,
+                                          Pageable page);
 }
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.middaymeal.repository;
 
 import com.middaymeal.entity.MealRecord;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+// Queries over many records filter on date, so that with meal_records partitioned by month
+// (database/meal_records_partitioning.sql) PostgreSQL reads only the partitions in range
 @Repository
 public interface MealRecordRepository extends JpaRepository<MealRecord, Long> {
     
@@ -27,8 +34,69 @@ public interface MealRecordRepository extends JpaRepository<MealRecord, Long> {
     @Query("SELECT SUM(mr.studentsPresent) FROM MealRecord mr WHERE mr.date BETWEEN :startDate AND :endDate")
     Long getTotalStudentsPresentInPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
+    @Query("SELECT mr.school.id, mr.menu.id, mr.date FROM MealRecord mr " +
+           "WHERE mr.school.id IN :schoolIds AND mr.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findKeysForSchoolsInPeriod(@Param("schoolIds") Collection<Long> schoolIds,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT MIN(mr.date) FROM MealRecord mr")
+    LocalDate findEarliestDate();
+    
+    @Query("SELECT MAX(mr.date) FROM MealRecord mr")
+    LocalDate findLatestDate();
+    
     @Query("SELECT mr FROM MealRecord mr WHERE mr.school.id = :schoolId AND mr.date BETWEEN :startDate AND :endDate ORDER BY mr.date DESC")
     List<MealRecord> findSchoolMealRecordsInPeriod(@Param("schoolId") Long schoolId, 
                                                    @Param("startDate") LocalDate startDate, 
                                                    @Param("endDate") LocalDate endDate);
+    
+    // Keyset (seek) pagination on (date, id): pass the last row of the previous page as the cursor.
+    // Pass afterId = 0 with afterDate = startDate for the first page.
+    @Query("SELECT mr FROM MealRecord mr WHERE mr.date BETWEEN :startDate AND :endDate AND " +
+           "(mr.date > :afterDate OR (mr.date = :afterDate AND mr.id > :afterId)) " +
+           "ORDER BY mr.date, mr.id")
+    List<MealRecord> findPeriodPageAfter(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         @Param("afterDate") LocalDate afterDate,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+    
+    @Query("SELECT mr FROM MealRecord mr WHERE mr.school.id = :schoolId AND mr.date BETWEEN :startDate AND :endDate AND " +
+           "(mr.date > :afterDate OR (mr.date = :afterDate AND mr.id > :afterId)) " +
+           "ORDER BY mr.date, mr.id")
+    List<MealRecord> findSchoolPeriodPageAfter(@Param("schoolId") Long schoolId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("afterDate") LocalDate afterDate,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    // Server-side cursor; callers must consume inside a transaction and close the stream
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT mr FROM MealRecord mr WHERE mr.date BETWEEN :startDate AND :endDate ORDER BY mr.date, mr.id")
+    Stream<MealRecord> streamByPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT mr FROM MealRecord mr WHERE mr.school.id = :schoolId AND mr.date BETWEEN :startDate AND :endDate ORDER BY mr.date, mr.id")
+    Stream<MealRecord> streamBySchoolAndPeriod(@Param("schoolId") Long schoolId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+    
+    // Register exports: school and menu are fetched with each row so the cursor needs no follow-up selects
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT mr FROM MealRecord mr JOIN FETCH mr.school s JOIN FETCH mr.menu " +
+           "WHERE s.id = :schoolId AND mr.date BETWEEN :startDate AND :endDate ORDER BY mr.date, mr.id")
+    Stream<MealRecord> streamRegisterForSchool(@Param("schoolId") Long schoolId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT mr FROM MealRecord mr JOIN FETCH mr.school s JOIN FETCH mr.menu " +
+           "WHERE (:state IS NULL OR s.state = :state) AND (:city IS NULL OR s.city = :city) " +
+           "AND mr.date BETWEEN :startDate AND :endDate ORDER BY s.code, mr.date, mr.id")
+    Stream<MealRecord> streamRegisterForRegion(@Param("state") String state,
+                                               @Param("city") String city,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.middaymeal.repository;
 
+import com.middaymeal.dto.MenuSummary;
 import com.middaymeal.entity.Menu;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,16 +15,47 @@ import java.util.Optional;
 @Repository
 public interface MenuRepository extends JpaRepository<Menu, Long> {
     
+    // Menu lists carry the menu's own columns only; its food items are left unloaded
+    String SUMMARY = "SELECT new com.middaymeal.dto.MenuSummary(m.id, m.date, m.mealType, m.menuDescription, " +
+                     "m.menuDescriptionMarathi) FROM Menu m ";
+    
     Optional<Menu> findByDateAndMealType(LocalDate date, Menu.MealType mealType);
     
-    List<Menu> findByMonthAndYearAndActiveTrue(Integer month, Integer year);
+    @Query(SUMMARY + "WHERE m.month = :month AND m.year = :year AND m.active = true")
+    List<MenuSummary> findSummariesForMonth(@Param("month") Integer month, @Param("year") Integer year);
+    
+    @Query(SUMMARY + "WHERE m.date BETWEEN :startDate AND :endDate AND m.active = true")
+    List<MenuSummary> findSummariesForPeriod(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+    
+    @Query(SUMMARY + "WHERE m.date >= :startDate AND m.date <= :endDate AND m.mealType = :mealType AND m.active = true ORDER BY m.date")
+    List<MenuSummary> findSummariesForPeriod(@Param("startDate") LocalDate startDate, 
+                                             @Param("endDate") LocalDate endDate, 
+                                             @Param("mealType") Menu.MealType mealType);
+    
+    @Query(SUMMARY + "WHERE m.active = true")
+    List<MenuSummary> findActiveSummaries();
+    
+    // Fetch plans for menus shown with their ingredients: the food items and their FoodItem rows are
+    // joined into the menu query, so any number of menus is one SQL statement instead of 1 + N + N*M
+    @EntityGraph(attributePaths = {"menuFoodItems", "menuFoodItems.foodItem"})
+    Optional<Menu> findWithFoodItemsById(Long id);
+    
+    @EntityGraph(attributePaths = {"menuFoodItems", "menuFoodItems.foodItem"})
+    Optional<Menu> findWithFoodItemsByDateAndMealType(LocalDate date, Menu.MealType mealType);
     
-    List<Menu> findByDateBetweenAndActiveTrue(LocalDate startDate, LocalDate endDate);
+    @EntityGraph(attributePaths = {"menuFoodItems", "menuFoodItems.foodItem"})
+    @Query("SELECT m FROM Menu m WHERE m.month = :month AND m.year = :year AND m.active = true ORDER BY m.date")
+    List<Menu> findWithFoodItemsForMonth(@Param("month") Integer month, @Param("year") Integer year);
     
-    @Query("SELECT m FROM Menu m WHERE m.date >= :startDate AND m.date <= :endDate AND m.mealType = :mealType AND m.active = true ORDER BY m.date")
-    List<Menu> findMenusForPeriod(@Param("startDate") LocalDate startDate, 
-                                  @Param("endDate") LocalDate endDate, 
-                                  @Param("mealType") Menu.MealType mealType);
+    @EntityGraph(attributePaths = {"menuFoodItems", "menuFoodItems.foodItem"})
+    @Query("SELECT m FROM Menu m WHERE m.date BETWEEN :startDate AND :endDate AND m.active = true ORDER BY m.date")
+    List<Menu> findWithFoodItemsForPeriod(@Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
     
-    List<Menu> findByActiveTrue();
+    @EntityGraph(attributePaths = {"menuFoodItems", "menuFoodItems.foodItem"})
+    @Query("SELECT m FROM Menu m WHERE m.date BETWEEN :startDate AND :endDate AND m.mealType = :mealType AND m.active = true ORDER BY m.date")
+    List<Menu> findWithFoodItemsForPeriod(@Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate,
+                                          @Param("mealType") Menu.MealType mealType);
 }
\ No newline at end of file
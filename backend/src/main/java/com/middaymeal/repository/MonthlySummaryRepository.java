@@ -0,0 +1,43 @@
+package com.middaymeal.repository;
+
+import com.middaymeal.entity.MonthlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlySummaryRepository extends JpaRepository<MonthlySummary, Long> {
+    
+    List<MonthlySummary> findBySchoolIdAndYearOrderByMonth(Long schoolId, Integer year);
+    
+    List<MonthlySummary> findByYearAndMonth(Integer year, Integer month);
+    
+    // Month indexes are year * 12 + (month - 1), so a range of whole months is one BETWEEN
+    @Query("SELECT COALESCE(SUM(ms.totalMealsServed), 0) FROM MonthlySummary ms " +
+           "WHERE ms.year * 12 + ms.month - 1 BETWEEN :fromMonthIndex AND :toMonthIndex")
+    Long sumMealsServed(@Param("fromMonthIndex") int fromMonthIndex, @Param("toMonthIndex") int toMonthIndex);
+    
+    @Query("SELECT COALESCE(SUM(ms.totalStudentsPresent), 0) FROM MonthlySummary ms " +
+           "WHERE ms.year * 12 + ms.month - 1 BETWEEN :fromMonthIndex AND :toMonthIndex")
+    Long sumStudentsPresent(@Param("fromMonthIndex") int fromMonthIndex, @Param("toMonthIndex") int toMonthIndex);
+    
+    @Modifying
+    @Query(value = "DELETE FROM monthly_summaries WHERE year * 12 + month - 1 BETWEEN :fromMonthIndex AND :toMonthIndex", nativeQuery = true)
+    int deleteInMonthRange(@Param("fromMonthIndex") int fromMonthIndex, @Param("toMonthIndex") int toMonthIndex);
+    
+    @Modifying
+    @Query(value = "INSERT INTO monthly_summaries (school_id, year, month, total_meal_days, total_meals_served, total_students_present, " +
+                   "average_attendance, total_food_cost, total_cooking_cost, generated_at) " +
+                   "SELECT school_id, CAST(EXTRACT(YEAR FROM date) AS INTEGER), CAST(EXTRACT(MONTH FROM date) AS INTEGER), " +
+                   "COUNT(*) FILTER (WHERE record_count > 0), SUM(meals_served), SUM(students_present), " +
+                   "COALESCE(ROUND(CAST(SUM(students_present) AS NUMERIC) / NULLIF(COUNT(*) FILTER (WHERE record_count > 0), 0), 2), 0), " +
+                   "SUM(food_cost), SUM(cooking_cost), CURRENT_TIMESTAMP " +
+                   "FROM daily_summaries WHERE date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY school_id, EXTRACT(YEAR FROM date), EXTRACT(MONTH FROM date)", nativeQuery = true)
+    int rebuildFromDailySummaries(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
\ No newline at end of file
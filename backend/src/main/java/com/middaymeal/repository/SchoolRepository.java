@@ -1,6 +1,8 @@
 package com.middaymeal.repository;
 
+import com.middaymeal.dto.SchoolSummary;
 import com.middaymeal.entity.School;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,19 +14,31 @@ import java.util.Optional;
 @Repository
 public interface SchoolRepository extends JpaRepository<School, Long> {
     
+    // List endpoints select only the displayed columns, never the lazy students and meal records
+    String SUMMARY = "SELECT new com.middaymeal.dto.SchoolSummary(s.id, s.name, s.code, s.address, s.city, " +
+                     "s.state, s.phone, s.email, s.principalName, s.totalStudents, s.active) FROM School s ";
+    
     Optional<School> findByCode(String code);
     
-    List<School> findByActiveTrue();
+    @Query(SUMMARY + "WHERE s.active = true")
+    List<SchoolSummary> findActiveSummaries();
     
-    List<School> findByCity(String city);
+    @Query(SUMMARY + "WHERE s.city = :city")
+    List<SchoolSummary> findSummariesByCity(@Param("city") String city);
     
-    List<School> findByState(String state);
+    @Query(SUMMARY + "WHERE s.state = :state")
+    List<SchoolSummary> findSummariesByState(@Param("state") String state);
     
-    @Query("SELECT s FROM School s WHERE s.active = true AND " +
-           "(LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(s.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(s.city) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<School> searchSchools(@Param("search") String search);
+    // The search text expression is the one idx_schools_search_trgm (search_indexes.sql) is built on, so
+    // the substring match is a single trigram index scan. Patterns are lowercase with '!' as LIKE escape.
+    // Name prefix matches come first, then code or city prefix matches, then the rest
+    @Query(SUMMARY + "WHERE s.active = true AND " +
+           "LOWER(CONCAT(s.name, ' ', s.code, ' ', COALESCE(s.city, ''))) LIKE :contains ESCAPE '!' " +
+           "ORDER BY CASE WHEN LOWER(s.name) LIKE :prefix ESCAPE '!' THEN 0 " +
+           "WHEN LOWER(s.code) LIKE :prefix ESCAPE '!' OR LOWER(s.city) LIKE :prefix ESCAPE '!' THEN 1 " +
+           "ELSE 2 END, s.name")
+    List<SchoolSummary> searchSchools(@Param("contains") String contains, @Param("prefix") String prefix,
+                                      Pageable page);
     
     @Query("SELECT COUNT(s) FROM School s WHERE s.active = true")
     Long countActiveSchools();
@@ -1,7 +1,13 @@
 package com.middaymeal.repository;
 
+import com.middaymeal.dto.UserSummary;
 import com.middaymeal.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,15 +16,48 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // The school is joined for its id and name only, so listing users does not load a School per row
+    String SUMMARY = "SELECT new com.middaymeal.dto.UserSummary(u.id, u.username, u.fullName, u.email, u.phone, " +
+                     "u.role, u.active, s.id, s.name) FROM User u LEFT JOIN u.school s ";
+    
     Optional<User> findByUsername(String username);
     
+    // Login reads the user and their school in one statement, outside any transaction
+    @EntityGraph(attributePaths = "school")
+    Optional<User> findWithSchoolByUsername(String username);
+    
     Optional<User> findByEmail(String email);
     
-    List<User> findByActiveTrue();
+    @Query(SUMMARY + "WHERE u.active = true")
+    List<UserSummary> findActiveSummaries();
+    
+    long countByActiveTrue();
+    
+    @Query(SUMMARY + "WHERE u.role = :role")
+    List<UserSummary> findSummariesByRole(@Param("role") User.Role role);
+    
+    @Query(SUMMARY + "WHERE s.id = :schoolId AND u.active = true")
+    List<UserSummary> findSummariesBySchool(@Param("schoolId") Long schoolId);
+    
+    // User directory; role and school are optional filters
+    String DIRECTORY_FILTER = "WHERE u.active = true AND (:role IS NULL OR u.role = :role) " +
+                              "AND (:schoolId IS NULL OR s.id = :schoolId) ";
+    
+    // The text match is on the expression idx_users_search_trgm (user_search.sql) is built on, so it is a
+    // trigram index scan. The pattern is lowercase with '!' as LIKE escape. Kept apart from findDirectory
+    // rather than made optional, so a cached generic plan cannot fall back to scanning the table.
+    String SEARCH_FILTER = DIRECTORY_FILTER +
+            "AND LOWER(CONCAT(u.username, ' ', u.fullName, ' ', COALESCE(u.email, ''))) LIKE :pattern ESCAPE '!'";
     
-    List<User> findByRole(User.Role role);
+    @Query(value = SUMMARY + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(u) FROM User u LEFT JOIN u.school s " + SEARCH_FILTER)
+    Page<UserSummary> searchDirectory(@Param("pattern") String pattern, @Param("role") User.Role role,
+                                      @Param("schoolId") Long schoolId, Pageable pageable);
     
-    List<User> findBySchoolIdAndActiveTrue(Long schoolId);
+    @Query(value = SUMMARY + DIRECTORY_FILTER,
+           countQuery = "SELECT COUNT(u) FROM User u LEFT JOIN u.school s " + DIRECTORY_FILTER)
+    Page<UserSummary> findDirectory(@Param("role") User.Role role, @Param("schoolId") Long schoolId,
+                                    Pageable pageable);
     
     boolean existsByUsername(String username);
     
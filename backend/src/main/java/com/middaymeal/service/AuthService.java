@@ -0,0 +1,68 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.LoginResponse;
+import com.middaymeal.entity.User;
+import com.middaymeal.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+// Not transactional: the password check is slow by design and must not hold a database connection.
+// It runs on the PasswordHashingService pool, so a login does not occupy a request thread while it waits.
+@Service
+public class AuthService {
+    
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtService jwtService;
+    
+    private final Timer successfulLogins;
+    private final Timer failedLogins;
+    // Checked against when the username is unknown, so that case takes as long as a wrong password
+    private final String unknownUserHash;
+    
+    @Autowired
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       JwtService jwtService, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtService = jwtService;
+        this.successfulLogins = loginTimer(meterRegistry, "success");
+        this.failedLogins = loginTimer(meterRegistry, "failure");
+        this.unknownUserHash = passwordHashingService.encode("unknown-user");
+    }
+    
+    // Throws SaturatedException straight away when too many logins are already waiting
+    public CompletableFuture<LoginResponse> login(String username, String password) {
+        Timer.Sample sample = Timer.start();
+        User user = userRepository.findWithSchoolByUsername(username).orElse(null);
+        return passwordHashingService.matches(password, user != null ? user.getPassword() : unknownUserHash)
+                .thenApply(matches -> {
+                    if (user == null || !matches || !Boolean.TRUE.equals(user.getActive())) {
+                        sample.stop(failedLogins);
+                        throw new BadCredentialsException("Invalid username or password");
+                    }
+                    
+                    Instant issuedAt = Instant.now();
+                    String token = jwtService.issueToken(user, issuedAt);
+                    LoginResponse.UserInfo userInfo = new LoginResponse.UserInfo(user.getId(), user.getUsername(),
+                            user.getFullName(), user.getEmail(), user.getRole(),
+                            user.getSchool() != null ? user.getSchool().getId() : null,
+                            user.getSchool() != null ? user.getSchool().getName() : null);
+                    sample.stop(successfulLogins);
+                    return new LoginResponse(token, jwtService.expiresAt(issuedAt), userInfo);
+                });
+    }
+    
+    private static Timer loginTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.login")
+                .description("Time to check a login and issue its token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.DashboardStats;
+import com.middaymeal.repository.DailySummaryRepository;
+import com.middaymeal.repository.SchoolRepository;
+import com.middaymeal.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory dashboard counters. Seeded once from the database at startup and on day rollover,
+ * then adjusted by the write paths after their transaction commits.
+ */
+@Service
+public class DashboardStatsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+    
+    private final SchoolRepository schoolRepository;
+    private final UserRepository userRepository;
+    private final DailySummaryRepository dailySummaryRepository;
+    
+    private final AtomicLong activeSchools = new AtomicLong();
+    private final AtomicLong activeUsers = new AtomicLong();
+    private final AtomicLong todayMeals = new AtomicLong();
+    private final AtomicLong weeklyMeals = new AtomicLong();
+    private final AtomicLong monthlyMeals = new AtomicLong();
+    
+    private volatile LocalDate countersDate;
+    
+    @Autowired
+    public DashboardStatsService(SchoolRepository schoolRepository, UserRepository userRepository,
+                                 DailySummaryRepository dailySummaryRepository) {
+        this.schoolRepository = schoolRepository;
+        this.userRepository = userRepository;
+        this.dailySummaryRepository = dailySummaryRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        activeSchools.set(schoolRepository.countActiveSchools());
+        activeUsers.set(userRepository.countByActiveTrue());
+        seedMealCounters(LocalDate.now());
+        logger.info("Dashboard counters seeded: {} schools, {} users, {} meals today",
+                activeSchools.get(), activeUsers.get(), todayMeals.get());
+    }
+    
+    public DashboardStats getStats() {
+        rollOverIfNeeded();
+        return new DashboardStats(activeSchools.get(), activeUsers.get(),
+                todayMeals.get(), weeklyMeals.get(), monthlyMeals.get());
+    }
+    
+    public void schoolActivated() {
+        TransactionCallbacks.afterCommit(activeSchools::incrementAndGet);
+    }
+    
+    public void schoolDeactivated() {
+        TransactionCallbacks.afterCommit(activeSchools::decrementAndGet);
+    }
+    
+    public void userActivated() {
+        TransactionCallbacks.afterCommit(activeUsers::incrementAndGet);
+    }
+    
+    public void userDeactivated() {
+        TransactionCallbacks.afterCommit(activeUsers::decrementAndGet);
+    }
+    
+    public void mealsServedChanged(LocalDate date, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            rollOverIfNeeded();
+            LocalDate today = countersDate;
+            if (date.equals(today)) {
+                todayMeals.addAndGet(delta);
+            }
+            if (!date.isBefore(startOfWeek(today)) && !date.isAfter(startOfWeek(today).plusDays(6))) {
+                weeklyMeals.addAndGet(delta);
+            }
+            if (date.getYear() == today.getYear() && date.getMonth() == today.getMonth()) {
+                monthlyMeals.addAndGet(delta);
+            }
+        });
+    }
+    
+    // Called after rollups are rebuilt out of band
+    public void refreshMealCounters() {
+        TransactionCallbacks.afterCommit(() -> {
+            countersDate = null;
+            rollOverIfNeeded();
+        });
+    }
+    
+    private void rollOverIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(countersDate)) {
+            seedMealCounters(today);
+        }
+    }
+    
+    // Date-based counters are re-read from the daily rollups, which is a handful of rows per school
+    private synchronized void seedMealCounters(LocalDate today) {
+        if (today.equals(countersDate)) {
+            return;
+        }
+        LocalDate weekStart = startOfWeek(today);
+        todayMeals.set(dailySummaryRepository.sumMealsServed(today, today));
+        weeklyMeals.set(dailySummaryRepository.sumMealsServed(weekStart, weekStart.plusDays(6)));
+        monthlyMeals.set(dailySummaryRepository.sumMealsServed(today.withDayOfMonth(1),
+                today.withDayOfMonth(today.lengthOfMonth())));
+        countersDate = today;
+    }
+    
+    private static LocalDate startOfWeek(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+}
\ No newline at end of file
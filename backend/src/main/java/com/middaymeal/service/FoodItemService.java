@@ -0,0 +1,46 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.FoodItemSummary;
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.repository.FoodItemRepository;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class FoodItemService {
+    
+    private final FoodItemRepository foodItemRepository;
+    private final SearchService searchService;
+    private final ReportingViewService reportingViewService;
+    private final ReferenceDataVersions referenceDataVersions;
+    
+    @Autowired
+    public FoodItemService(FoodItemRepository foodItemRepository, SearchService searchService,
+                           ReportingViewService reportingViewService, ReferenceDataVersions referenceDataVersions) {
+        this.foodItemRepository = foodItemRepository;
+        this.searchService = searchService;
+        this.reportingViewService = reportingViewService;
+        this.referenceDataVersions = referenceDataVersions;
+    }
+    
+    public List<FoodItemSummary> getAllActiveFoodItems() {
+        return foodItemRepository.findActiveSummaries();
+    }
+    
+    public FoodItem createFoodItem(FoodItem foodItem) {
+        FoodItem savedFoodItem = foodItemRepository.save(foodItem);
+        searchService.foodItemChanged(savedFoodItem);
+        reportingViewService.foodItemsChanged();
+        referenceDataVersions.changed(ReferenceData.FOOD_ITEMS);
+        return savedFoodItem;
+    }
+    
+    public List<FoodItemSummary> searchFoodItems(String search, int limit) {
+        return searchService.searchFoodItems(search, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.middaymeal.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.middaymeal.dto.AuthenticatedUser;
+import com.middaymeal.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and verifies the signed tokens the API is called with. A token carries the user's id,
+ * role and school, so requests are authenticated without reading the user from the database.
+ * Tokens that already passed verification are kept in a bounded cache until they expire, which
+ * spares the signature check on every further request made with them. The flip side of trusting
+ * the claims: a user deactivated or given another role keeps the old token's rights until it expires.
+ */
+@Service
+public class JwtService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+    
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String SCHOOL_ID_CLAIM = "sid";
+    // HS256 needs a key of at least 256 bits
+    private static final int MIN_KEY_BYTES = 32;
+    
+    private record VerifiedToken(AuthenticatedUser user, Instant expiresAt) {}
+    
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Duration expiration;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    
+    private final Timer cachedVerifications;
+    private final Timer signatureVerifications;
+    private final Timer rejectedVerifications;
+    
+    @Autowired
+    public JwtService(@Value("${spring.security.jwt.secret-key}") String secretKey,
+                      @Value("${spring.security.jwt.expiration}") long expirationMillis,
+                      @Value("${spring.security.jwt.verified-cache-size:10000}") long verifiedCacheSize,
+                      MeterRegistry meterRegistry) {
+        this.key = signingKey(secretKey);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.expiration = Duration.ofMillis(expirationMillis);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+        this.cachedVerifications = verificationTimer(meterRegistry, "cached");
+        this.signatureVerifications = verificationTimer(meterRegistry, "verified");
+        this.rejectedVerifications = verificationTimer(meterRegistry, "rejected");
+    }
+    
+    public String issueToken(User user, Instant issuedAt) {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .claim(SCHOOL_ID_CLAIM, user.getSchool() != null ? user.getSchool().getId() : null)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(expiresAt(issuedAt)))
+                .signWith(key)
+                .compact();
+    }
+    
+    public Instant expiresAt(Instant issuedAt) {
+        return issuedAt.plus(expiration);
+    }
+    
+    // Empty for a token that is malformed, expired, or not signed with this server's key
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        long start = System.nanoTime();
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            cachedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached.user());
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Long userId = claims.get(USER_ID_CLAIM, Long.class);
+            String role = claims.get(ROLE_CLAIM, String.class);
+            if (userId == null || role == null || claims.getSubject() == null || claims.getExpiration() == null) {
+                throw new IllegalArgumentException("Token is missing a required claim");
+            }
+            AuthenticatedUser user = new AuthenticatedUser(userId, claims.getSubject(), User.Role.valueOf(role),
+                    claims.get(SCHOOL_ID_CLAIM, Long.class));
+            // Only verified tokens are cached, so junk tokens cannot push out the real ones
+            verifiedTokens.put(token, new VerifiedToken(user, claims.getExpiration().toInstant()));
+            signatureVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(user);
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Rejected token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.token.verification")
+                .description("Time to authenticate a request from its bearer token")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    private static SecretKey signingKey(String secretKey) {
+        byte[] bytes = secretKey.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_KEY_BYTES) {
+            // Stretching a short secret to the key size adds no strength; it only keeps development setups working
+            logger.warn("JWT secret is shorter than {} bytes, set JWT_SECRET to a longer random value", MIN_KEY_BYTES);
+            try {
+                bytes = MessageDigest.getInstance("SHA-256").digest(bytes);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return Keys.hmacShaKeyFor(bytes);
+    }
+}
\ No newline at end of file
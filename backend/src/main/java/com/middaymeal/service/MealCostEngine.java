@@ -0,0 +1,52 @@
+package com.middaymeal.service;
+
+import java.util.Arrays;
+
+// Meal cost arithmetic in integer paise over primitive arrays. Each rate applies from its effective day
+// (epoch day) until the next one starts; a record is priced at the rate in force on its date, found by
+// binary search, so every cost is an exact product of a count and a rate and every total an exact sum.
+class MealCostEngine {
+    
+    // Ascending with one entry per day, per student per day for grades 1-5 and 6-8
+    private final long[] effectiveFrom;
+    private final long[] rate1to5;
+    private final long[] rate6to8;
+    private final long[] cookingRate1to5;
+    private final long[] cookingRate6to8;
+    
+    record Result(long[] totalCost, long[] cookingCost, int[] rates) {}
+    
+    MealCostEngine(long[] effectiveFrom, long[] rate1to5, long[] rate6to8, long[] cookingRate1to5, long[] cookingRate6to8) {
+        this.effectiveFrom = effectiveFrom;
+        this.rate1to5 = rate1to5;
+        this.rate6to8 = rate6to8;
+        this.cookingRate1to5 = cookingRate1to5;
+        this.cookingRate6to8 = cookingRate6to8;
+    }
+    
+    /**
+     * Prices record i for {@code grade1to5[i]} and {@code grade6to8[i]} students on epoch day
+     * {@code days[i]}. {@code rates[i]} is the index of the rate used, or -1 when no rate was in force
+     * yet, in which case both costs are zero.
+     */
+    Result compute(long[] days, int[] grade1to5, int[] grade6to8) {
+        long[] totalCost = new long[days.length];
+        long[] cookingCost = new long[days.length];
+        int[] rates = new int[days.length];
+        for (int i = 0; i < days.length; i++) {
+            int rate = rateOn(days[i]);
+            rates[i] = rate;
+            if (rate >= 0) {
+                totalCost[i] = grade1to5[i] * rate1to5[rate] + grade6to8[i] * rate6to8[rate];
+                cookingCost[i] = grade1to5[i] * cookingRate1to5[rate] + grade6to8[i] * cookingRate6to8[rate];
+            }
+        }
+        return new Result(totalCost, cookingCost, rates);
+    }
+    
+    int rateOn(long day) {
+        int index = Arrays.binarySearch(effectiveFrom, day);
+        // Between two effective dates the earlier rate is in force
+        return index >= 0 ? index : -index - 2;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.CostReconciliation;
+import com.middaymeal.dto.MealCostRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prices meal records from the versioned, effective-dated rates in meal_cost_rates: a rate per student
+ * per day for grade 1-5 and 6-8 attendance, in integer paise. A month is read in one query, priced by
+ * {@link MealCostEngine}, and only the records whose costs change are written back, in one UPDATE ...
+ * FROM unnest(...) over arrays of their ids and costs, so reconciling every school's month is one pass
+ * instead of a calculate_meal_cost call per record. The rollups are moved by the same differences.
+ */
+@Service
+@Transactional
+public class MealCostService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MealCostService.class);
+    
+    // Versions of the same effective date come in ascending order, so the last one read wins
+    private static final String RATES =
+            "SELECT id, effective_from, version, grade_1_5_paise, grade_6_8_paise, grade_1_5_cooking_paise, " +
+            "grade_6_8_cooking_paise, notes FROM meal_cost_rates ORDER BY effective_from, version";
+    
+    private static final String INSERT_RATE =
+            "INSERT INTO meal_cost_rates (effective_from, version, grade_1_5_paise, grade_6_8_paise, " +
+            "grade_1_5_cooking_paise, grade_6_8_cooking_paise, notes) " +
+            "SELECT ?, COALESCE(MAX(version), 0) + 1, ?, ?, ?, ?, ? FROM meal_cost_rates WHERE effective_from = ? " +
+            "RETURNING id, version";
+    
+    private static final String RECORDS =
+            "SELECT id, school_id, date, meals_served, students_present, COALESCE(grade_1_5_present, 0), " +
+            "COALESCE(grade_6_8_present, 0), COALESCE(total_cost, 0), COALESCE(cooking_cost, 0) " +
+            "FROM meal_records WHERE date BETWEEN ? AND ? AND (?::bigint IS NULL OR school_id = ?)";
+    
+    // The changed rows travel as three arrays, so a whole month is one statement and one join however
+    // many records it has (multi-row VALUES would need a statement, and a scan, per thousand rows). The
+    // month's dates keep the join to that month's partition when meal_records is partitioned.
+    private static final String COST_UPDATE =
+            "UPDATE meal_records m SET total_cost = v.total_cost, cooking_cost = v.cooking_cost, updated_at = CURRENT_TIMESTAMP " +
+            "FROM unnest(?::bigint[], ?::numeric[], ?::numeric[]) AS v(id, total_cost, cooking_cost) " +
+            "WHERE m.id = v.id AND m.date BETWEEN ? AND ?";
+    
+    private record PricedRecord(long id, long schoolId, LocalDate date, int mealsServed, int studentsPresent,
+                                long totalCost, long cookingCost) {}
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final MealRollupService mealRollupService;
+    
+    @Autowired
+    public MealCostService(JdbcTemplate jdbcTemplate, MealRollupService mealRollupService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mealRollupService = mealRollupService;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<MealCostRate> getRates() {
+        requireRateTable();
+        return jdbcTemplate.query(RATES, (rs, rowNum) -> new MealCostRate(rs.getLong(1),
+                rs.getObject(2, LocalDate.class), rs.getInt(3), rupees(rs.getLong(4)), rupees(rs.getLong(5)),
+                rupees(rs.getLong(6)), rupees(rs.getLong(7)), rs.getString(8)));
+    }
+    
+    // Rates are never changed in place, so records priced earlier can always be repriced the same way
+    public MealCostRate addRate(MealCostRate rate) {
+        requireRateTable();
+        long cooking1to5 = rate.grade1To5CookingRate() != null ? paise(rate.grade1To5CookingRate()) : 0;
+        long cooking6to8 = rate.grade6To8CookingRate() != null ? paise(rate.grade6To8CookingRate()) : 0;
+        return jdbcTemplate.queryForObject(INSERT_RATE, (rs, rowNum) -> new MealCostRate(rs.getLong(1),
+                        rate.effectiveFrom(), rs.getInt(2), rupees(paise(rate.grade1To5Rate())),
+                        rupees(paise(rate.grade6To8Rate())), rupees(cooking1to5), rupees(cooking6to8), rate.notes()),
+                rate.effectiveFrom(), paise(rate.grade1To5Rate()), paise(rate.grade6To8Rate()), cooking1to5, cooking6to8,
+                rate.notes(), rate.effectiveFrom());
+    }
+    
+    /**
+     * Reprices a month of meal records (one school's, or every school's when schoolId is null) at the
+     * rates in force on each record's date and writes back total_cost and cooking_cost where they differ.
+     */
+    public CostReconciliation reconcileMonth(YearMonth month, Long schoolId) {
+        requireRateTable();
+        List<String> warnings = new ArrayList<>();
+        MealCostEngine engine = loadEngine();
+        
+        List<PricedRecord> records = new ArrayList<>();
+        List<Long> days = new ArrayList<>();
+        List<Integer> grade1to5 = new ArrayList<>();
+        List<Integer> grade6to8 = new ArrayList<>();
+        int[] withoutGradeSplit = new int[1];
+        jdbcTemplate.query(RECORDS, rs -> {
+            LocalDate date = rs.getObject(3, LocalDate.class);
+            int mealsServed = rs.getInt(4);
+            int students1to5 = rs.getInt(6);
+            int students6to8 = rs.getInt(7);
+            if (students1to5 == 0 && students6to8 == 0 && mealsServed > 0) {
+                students1to5 = mealsServed;
+                withoutGradeSplit[0]++;
+            }
+            records.add(new PricedRecord(rs.getLong(1), rs.getLong(2), date, mealsServed, rs.getInt(5),
+                    paise(rs.getBigDecimal(8)), paise(rs.getBigDecimal(9))));
+            days.add(date.toEpochDay());
+            grade1to5.add(students1to5);
+            grade6to8.add(students6to8);
+        }, month.atDay(1), month.atEndOfMonth(), schoolId, schoolId);
+        if (withoutGradeSplit[0] > 0) {
+            warnings.add(withoutGradeSplit[0] + " record(s) have no attendance by grade; their meals served are priced at the grade 1-5 rate");
+        }
+        
+        long start = System.nanoTime();
+        MealCostEngine.Result result = engine.compute(days.stream().mapToLong(Long::longValue).toArray(),
+                grade1to5.stream().mapToInt(Integer::intValue).toArray(),
+                grade6to8.stream().mapToInt(Integer::intValue).toArray());
+        
+        List<MealRollupService.Contribution> before = new ArrayList<>();
+        List<MealRollupService.Contribution> after = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+        List<BigDecimal> changedTotalCosts = new ArrayList<>();
+        List<BigDecimal> changedCookingCosts = new ArrayList<>();
+        long totalCost = 0;
+        long cookingCost = 0;
+        int withoutRate = 0;
+        for (int i = 0; i < records.size(); i++) {
+            PricedRecord record = records.get(i);
+            if (result.rates()[i] < 0) {
+                // Left as they are rather than zeroed
+                withoutRate++;
+                totalCost += record.totalCost();
+                cookingCost += record.cookingCost();
+                continue;
+            }
+            long newTotal = result.totalCost()[i];
+            long newCooking = result.cookingCost()[i];
+            totalCost += newTotal;
+            cookingCost += newCooking;
+            if (newTotal != record.totalCost() || newCooking != record.cookingCost()) {
+                changedIds.add(record.id());
+                changedTotalCosts.add(rupees(newTotal));
+                changedCookingCosts.add(rupees(newCooking));
+                before.add(contribution(record, record.totalCost(), record.cookingCost()));
+                after.add(contribution(record, newTotal, newCooking));
+            }
+        }
+        if (withoutRate > 0) {
+            warnings.add(withoutRate + " record(s) are dated before the earliest rate in meal_cost_rates and were not repriced");
+        }
+        
+        if (!changedIds.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(COST_UPDATE);
+                statement.setArray(1, connection.createArrayOf("bigint", changedIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("numeric", changedTotalCosts.toArray()));
+                statement.setArray(3, connection.createArrayOf("numeric", changedCookingCosts.toArray()));
+                statement.setObject(4, month.atDay(1));
+                statement.setObject(5, month.atEndOfMonth());
+                return statement;
+            });
+        }
+        mealRollupService.recordsChanged(before, after);
+        logger.info("Reconciled costs for {} ({}): {} records priced, {} updated in {} ms", month,
+                schoolId != null ? "school " + schoolId : "all schools", records.size(), changedIds.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        
+        return new CostReconciliation(month.getYear(), month.getMonthValue(), schoolId, records.size(), changedIds.size(),
+                rupees(totalCost), rupees(cookingCost), warnings);
+    }
+    
+    private MealCostEngine loadEngine() {
+        List<long[]> rates = new ArrayList<>();
+        jdbcTemplate.query(RATES, rs -> {
+            long[] rate = {rs.getObject(2, LocalDate.class).toEpochDay(), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)};
+            if (!rates.isEmpty() && rates.get(rates.size() - 1)[0] == rate[0]) {
+                rates.set(rates.size() - 1, rate);
+            } else {
+                rates.add(rate);
+            }
+        });
+        long[][] columns = new long[5][rates.size()];
+        for (int i = 0; i < rates.size(); i++) {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][i] = rates.get(i)[column];
+            }
+        }
+        return new MealCostEngine(columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+    
+    private void requireRateTable() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('meal_cost_rates') IS NOT NULL", Boolean.class))) {
+            throw new IllegalStateException("Meal cost rates are not set up, apply database/meal_cost_rates.sql");
+        }
+    }
+    
+    private static MealRollupService.Contribution contribution(PricedRecord record, long totalCost, long cookingCost) {
+        return new MealRollupService.Contribution(record.schoolId(), record.date(), record.mealsServed(),
+                record.studentsPresent(), rupees(totalCost), rupees(cookingCost));
+    }
+    
+    private static long paise(BigDecimal rupees) {
+        return rupees.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    private static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
\ No newline at end of file
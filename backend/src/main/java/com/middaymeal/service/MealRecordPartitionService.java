@@ -0,0 +1,93 @@
+package com.middaymeal.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps monthly partitions of meal_records ready once database/meal_records_partitioning.sql has
+ * partitioned it. Records dated in a month without a partition land in the default partition, which
+ * every date range query then scans as well; so the partitions of the current month and the months
+ * ahead are created at startup and daily, and months found in the default partition are moved into
+ * partitions of their own. Partitions are created by create_meal_records_partition, which serializes
+ * instances doing this at the same time. Nothing is done while meal_records is a plain table.
+ */
+@Service
+public class MealRecordPartitionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MealRecordPartitionService.class);
+    
+    private static final String IS_PARTITIONED =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('meal_records'))";
+    
+    private static final String HAS_DEFAULT_PARTITION = "SELECT to_regclass('meal_records_default') IS NOT NULL";
+    
+    private static final String DEFAULT_PARTITION_MONTHS =
+            "SELECT DISTINCT DATE_TRUNC('month', date)::DATE FROM meal_records_default";
+    
+    private static final String CREATE_PARTITION = "SELECT create_meal_records_partition(?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    
+    @Autowired
+    public MealRecordPartitionService(JdbcTemplate jdbcTemplate,
+                                      @Value("${app.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitioning.cron:0 0 2 * * *}")
+    public void createPartitions() {
+        try {
+            List<YearMonth> created = ensurePartitions(YearMonth.now());
+            if (!created.isEmpty()) {
+                logger.info("Created meal_records partitions for {}", created);
+            }
+        } catch (DataAccessException e) {
+            // Records still go to the default partition; retried at the next run
+            logger.warn("Creating meal_records partitions failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Creates the partitions of the given month, the configured number of months after it and the months
+     * of any records in the default partition, where missing. Returns the months whose partitions it created.
+     */
+    public List<YearMonth> ensurePartitions(YearMonth from) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class))) {
+            return List.of();
+        }
+        Set<YearMonth> months = new TreeSet<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(from.plusMonths(i));
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_DEFAULT_PARTITION, Boolean.class))) {
+            jdbcTemplate.query(DEFAULT_PARTITION_MONTHS,
+                    rs -> { months.add(YearMonth.from(rs.getObject(1, LocalDate.class))); });
+        }
+        List<YearMonth> created = new ArrayList<>();
+        for (YearMonth month : months) {
+            // One transaction per month: moving a month out of the default partition locks it while it runs
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(CREATE_PARTITION, Boolean.class, month.atDay(1)))) {
+                created.add(month);
+            }
+        }
+        return created;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,108 @@
 package com.middaymeal.service;
 
+import com.middaymeal.dto.BulkIngestResult;
+import com.middaymeal.dto.MealRecordPage;
+import com.middaymeal.dto.MealRecordRequest;
+import com.middaymeal.dto.MealRecordResponse;
 import com.middaymeal.entity.MealRecord;
+import com.middaymeal.entity.Menu;
+import com.middaymeal.entity.School;
 import com.middaymeal.repository.MealRecordRepository;
+import com.middaymeal.repository.MenuRepository;
+import com.middaymeal.repository.SchoolRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class MealRecordService {
     
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BULK_ROWS = 10000;
+    
+    // Inserts a batch of new records in one statement, the rows travelling as one array per column. A row
+    // whose record another submission committed after the batch was checked is skipped by ON CONFLICT
+    // rather than failing the whole batch; it is missing from the returned rows.
+    private static final String BULK_INSERT =
+            "INSERT INTO meal_records (id, school_id, menu_id, date, students_present, meals_served, " +
+            "grade_1_5_present, grade_6_8_present, teacher_in_charge, remarks, photo_url, meal_quality, created_at, updated_at) " +
+            "SELECT nextval('meal_records_id_seq'), v.school_id, v.menu_id, v.date, v.students_present, v.meals_served, " +
+            "v.grade_1_5_present, v.grade_6_8_present, v.teacher_in_charge, v.remarks, v.photo_url, v.meal_quality, " +
+            "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::date[], ?::integer[], ?::integer[], ?::integer[], ?::integer[], " +
+            "?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) AS v(school_id, menu_id, date, students_present, " +
+            "meals_served, grade_1_5_present, grade_6_8_present, teacher_in_charge, remarks, photo_url, meal_quality) " +
+            "ON CONFLICT (school_id, menu_id, date) DO NOTHING " +
+            "RETURNING id, school_id, menu_id, date, total_cost, cooking_cost";
+    
+    // Inserts the record of a school, menu and date, or locks and updates the existing one, in one
+    // statement, returning the figures it had before for the rollups. When another submission of the
+    // same record commits between the two, neither branch sees it and the statement returns no row.
+    private static final String UPSERT =
+            "WITH input AS (SELECT ?::bigint AS school_id, ?::bigint AS menu_id, ?::date AS date, " +
+            "?::integer AS students_present, ?::integer AS meals_served, ?::integer AS grade_1_5_present, " +
+            "?::integer AS grade_6_8_present, ?::varchar AS teacher_in_charge, ?::varchar AS remarks, " +
+            "?::varchar AS photo_url, ?::varchar AS meal_quality), " +
+            "inserted AS (INSERT INTO meal_records (id, school_id, menu_id, date, students_present, meals_served, " +
+            "grade_1_5_present, grade_6_8_present, teacher_in_charge, remarks, photo_url, meal_quality, created_at, updated_at) " +
+            "SELECT nextval('meal_records_id_seq'), school_id, menu_id, date, students_present, meals_served, grade_1_5_present, " +
+            "grade_6_8_present, teacher_in_charge, remarks, photo_url, meal_quality, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM input " +
+            "ON CONFLICT (school_id, menu_id, date) DO NOTHING RETURNING id, total_cost, cooking_cost), " +
+            "previous AS (SELECT mr.id, mr.date, mr.meals_served, mr.students_present, mr.total_cost, mr.cooking_cost " +
+            "FROM meal_records mr JOIN input i ON mr.school_id = i.school_id AND mr.menu_id = i.menu_id AND mr.date = i.date " +
+            "FOR UPDATE OF mr), " +
+            "updated AS (UPDATE meal_records mr SET students_present = i.students_present, meals_served = i.meals_served, " +
+            "grade_1_5_present = i.grade_1_5_present, grade_6_8_present = i.grade_6_8_present, " +
+            "teacher_in_charge = i.teacher_in_charge, remarks = i.remarks, photo_url = i.photo_url, " +
+            "meal_quality = i.meal_quality, updated_at = CURRENT_TIMESTAMP " +
+            "FROM previous p, input i WHERE mr.id = p.id AND mr.date = p.date " +
+            "RETURNING mr.id, p.meals_served, p.students_present, p.total_cost, p.cooking_cost) " +
+            "SELECT id, TRUE, NULL::integer, NULL::integer, total_cost, cooking_cost FROM inserted " +
+            "UNION ALL SELECT id, FALSE, meals_served, students_present, total_cost, cooking_cost FROM updated";
+    
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+    
     private final MealRecordRepository mealRecordRepository;
+    private final SchoolRepository schoolRepository;
+    private final MenuRepository menuRepository;
+    private final MealRollupService mealRollupService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
     
     @Autowired
-    public MealRecordService(MealRecordRepository mealRecordRepository) {
+    public MealRecordService(MealRecordRepository mealRecordRepository, SchoolRepository schoolRepository,
+                             MenuRepository menuRepository, MealRollupService mealRollupService,
+                             EntityManager entityManager, Validator validator, JdbcTemplate jdbcTemplate) {
         this.mealRecordRepository = mealRecordRepository;
+        this.schoolRepository = schoolRepository;
+        this.menuRepository = menuRepository;
+        this.mealRollupService = mealRollupService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
     }
     
     public List<MealRecord> getAllMealRecords() {
@@ -45,36 +129,342 @@ public class MealRecordService {
         return mealRecordRepository.findByDate(date);
     }
     
-    public MealRecord createMealRecord(MealRecord mealRecord) {
-        return mealRecordRepository.save(mealRecord);
+    @Transactional(readOnly = true)
+    public MealRecordPage getMealRecordPage(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                            LocalDate afterDate, Long afterId, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        LocalDate cursorDate = afterDate != null ? afterDate : startDate;
+        Long cursorId = afterDate != null && afterId != null ? afterId : 0L;
+        
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<MealRecord> rows = schoolId != null
+                ? mealRecordRepository.findSchoolPeriodPageAfter(schoolId, startDate, endDate, cursorDate, cursorId, limit)
+                : mealRecordRepository.findPeriodPageAfter(startDate, endDate, cursorDate, cursorId, limit);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<MealRecordResponse> records = rows.stream()
+                .limit(pageSize)
+                .map(MealRecordResponse::new)
+                .toList();
+        return new MealRecordPage(records, hasMore);
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamMealRecords(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                  Consumer<MealRecordResponse> consumer) {
+        try (Stream<MealRecord> records = schoolId != null
+                ? mealRecordRepository.streamBySchoolAndPeriod(schoolId, startDate, endDate)
+                : mealRecordRepository.streamByPeriod(startDate, endDate)) {
+            records.forEach(record -> {
+                consumer.accept(new MealRecordResponse(record));
+                // Detach each row so the persistence context stays flat for the whole period
+                entityManager.detach(record);
+            });
+        }
+    }
+    
+    public Submission createMealRecord(MealRecord mealRecord) {
+        MealRecordRequest request = new MealRecordRequest();
+        request.setSchoolId(mealRecord.getSchool() != null ? mealRecord.getSchool().getId() : null);
+        request.setMenuId(mealRecord.getMenu() != null ? mealRecord.getMenu().getId() : null);
+        request.setDate(mealRecord.getDate());
+        request.setStudentsPresent(mealRecord.getStudentsPresent());
+        request.setMealsServed(mealRecord.getMealsServed());
+        request.setGrade1To5Present(mealRecord.getGrade1To5Present());
+        request.setGrade6To8Present(mealRecord.getGrade6To8Present());
+        request.setTeacherInCharge(mealRecord.getTeacherInCharge());
+        request.setRemarks(mealRecord.getRemarks());
+        request.setPhotoUrl(mealRecord.getPhotoUrl());
+        request.setMealQuality(mealRecord.getMealQuality());
+        return submitMealRecord(request);
+    }
+    
+    /**
+     * Saves the record of a school, menu and date: creates it, or updates it when it already exists, in a
+     * single statement. Submitting the same record again, as a client retrying after a lost response does,
+     * leaves one record with the latest figures. Costs are kept; they are set by cost reconciliation.
+     */
+    public Submission submitMealRecord(MealRecordRequest request) {
+        Set<ConstraintViolation<MealRecordRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        UpsertedRow row;
+        try {
+            row = upsert(request);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("School " + request.getSchoolId() + " or menu "
+                    + request.getMenuId() + " does not exist");
+        }
+        if (row == null) {
+            throw new IllegalStateException(contendedMessage(request));
+        }
+        List<MealRollupService.Contribution> before = new ArrayList<>();
+        List<MealRollupService.Contribution> after = new ArrayList<>();
+        addContributions(request, row, before, after);
+        mealRollupService.recordsChanged(before, after);
+        return new Submission(toResponse(row.id(), request), row.created());
+    }
+    
+    /**
+     * Saves a batch of meal records captured offline, each created or updated as submitMealRecord does, so
+     * a batch sent again after a dropped connection changes nothing. When schoolId is given only that
+     * school's records are accepted. Rows are checked before they are written, so a bad row is reported
+     * in the result without failing the rest of the batch.
+     */
+    public BulkIngestResult submitMealRecords(List<MealRecordRequest> requests, Long schoolId) {
+        BulkIngestResult result = new BulkIngestResult(requests.size());
+        Set<Long> schoolIds = requests.stream().map(MealRecordRequest::getSchoolId)
+                .filter(id -> id != null).collect(Collectors.toSet());
+        Set<Long> menuIds = requests.stream().map(MealRecordRequest::getMenuId)
+                .filter(id -> id != null).collect(Collectors.toSet());
+        Map<Long, School> schools = schoolRepository.findAllById(schoolIds).stream()
+                .collect(Collectors.toMap(School::getId, Function.identity()));
+        Map<Long, Menu> menus = menuRepository.findAllById(menuIds).stream()
+                .collect(Collectors.toMap(Menu::getId, Function.identity()));
+        
+        List<MealRollupService.Contribution> before = new ArrayList<>();
+        List<MealRollupService.Contribution> after = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            MealRecordRequest request = requests.get(index);
+            String error = rejectionOf(request, schools, menus);
+            if (error == null && schoolId != null && !schoolId.equals(request.getSchoolId())) {
+                error = "Meal records can only be submitted for school " + schoolId;
+            }
+            if (error != null) {
+                result.addRejected(index, error);
+                continue;
+            }
+            UpsertedRow row = upsert(request);
+            if (row == null) {
+                result.addRejected(index, contendedMessage(request));
+            } else if (row.created()) {
+                result.addCreated(index, row.id());
+                addContributions(request, row, before, after);
+            } else {
+                result.addUpdated(index, row.id());
+                addContributions(request, row, before, after);
+            }
+        }
+        mealRollupService.recordsChanged(before, after);
+        return result;
+    }
+    
+    // Null when another submission of the same record kept committing in between (see UPSERT)
+    private UpsertedRow upsert(MealRecordRequest request) {
+        Object[] args = {request.getSchoolId(), request.getMenuId(), request.getDate(), request.getStudentsPresent(),
+                request.getMealsServed(), request.getGrade1To5Present(), request.getGrade6To8Present(),
+                request.getTeacherInCharge(), request.getRemarks(), request.getPhotoUrl(),
+                request.getMealQuality() != null ? request.getMealQuality().name() : null};
+        for (int attempt = 1; attempt <= MAX_UPSERT_ATTEMPTS; attempt++) {
+            List<UpsertedRow> rows = jdbcTemplate.query(UPSERT, (rs, rowNum) -> new UpsertedRow(rs.getLong(1),
+                    rs.getBoolean(2), rs.getInt(3), rs.getInt(4), rs.getBigDecimal(5), rs.getBigDecimal(6)), args);
+            // Empty when another submission of this record committed meanwhile; the next statement sees it
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+        }
+        return null;
+    }
+    
+    private static String contendedMessage(MealRecordRequest request) {
+        return "Meal record for school " + request.getSchoolId() + ", menu " + request.getMenuId() + " on "
+                + request.getDate() + " is being changed by another submission, try again";
+    }
+    
+    // Costs are the same before and after: a submission does not change them
+    private static void addContributions(MealRecordRequest request, UpsertedRow row,
+                                         List<MealRollupService.Contribution> before,
+                                         List<MealRollupService.Contribution> after) {
+        BigDecimal totalCost = row.totalCost() != null ? row.totalCost() : BigDecimal.ZERO;
+        BigDecimal cookingCost = row.cookingCost() != null ? row.cookingCost() : BigDecimal.ZERO;
+        if (!row.created()) {
+            before.add(new MealRollupService.Contribution(request.getSchoolId(), request.getDate(),
+                    row.previousMealsServed(), row.previousStudentsPresent(), totalCost, cookingCost));
+        }
+        after.add(new MealRollupService.Contribution(request.getSchoolId(), request.getDate(),
+                request.getMealsServed(), request.getStudentsPresent(), totalCost, cookingCost));
+    }
+    
+    private static MealRecordResponse toResponse(long id, MealRecordRequest request) {
+        MealRecordResponse response = new MealRecordResponse();
+        response.setId(id);
+        response.setSchoolId(request.getSchoolId());
+        response.setMenuId(request.getMenuId());
+        response.setDate(request.getDate());
+        response.setStudentsPresent(request.getStudentsPresent());
+        response.setMealsServed(request.getMealsServed());
+        response.setGrade1To5Present(request.getGrade1To5Present());
+        response.setGrade6To8Present(request.getGrade6To8Present());
+        response.setTeacherInCharge(request.getTeacherInCharge());
+        response.setRemarks(request.getRemarks());
+        response.setPhotoUrl(request.getPhotoUrl());
+        response.setMealQuality(request.getMealQuality());
+        return response;
+    }
+    
+    /**
+     * Creates a batch of new meal records; a row for a record that already exists is rejected, as are
+     * invalid rows, in the per-row result. A record another submission creates while the batch is being
+     * written is rejected the same way instead of failing the batch.
+     */
+    public BulkIngestResult bulkCreateMealRecords(List<MealRecordRequest> requests) {
+        BulkIngestResult result = new BulkIngestResult(requests.size());
+        
+        // Resolve every referenced school and menu with one IN query each
+        Set<Long> schoolIds = requests.stream().map(MealRecordRequest::getSchoolId)
+                .filter(id -> id != null).collect(Collectors.toSet());
+        Set<Long> menuIds = requests.stream().map(MealRecordRequest::getMenuId)
+                .filter(id -> id != null).collect(Collectors.toSet());
+        Map<Long, School> schools = schoolRepository.findAllById(schoolIds).stream()
+                .collect(Collectors.toMap(School::getId, Function.identity()));
+        Map<Long, Menu> menus = menuRepository.findAllById(menuIds).stream()
+                .collect(Collectors.toMap(Menu::getId, Function.identity()));
+        Set<RecordKey> takenKeys = findExistingKeys(requests, schoolIds);
+        
+        String[] errors = new String[requests.size()];
+        List<MealRecordRequest> rows = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            errors[index] = validateBulkRow(requests.get(index), schools, menus, takenKeys);
+            if (errors[index] == null) {
+                rows.add(requests.get(index));
+            }
+        }
+        
+        Map<RecordKey, UpsertedRow> inserted = new HashMap<>();
+        if (!rows.isEmpty()) {
+            // Menus a workbook import has just created must be in the database before rows refer to them
+            entityManager.flush();
+            insertBulk(rows, inserted);
+        }
+        
+        List<MealRollupService.Contribution> before = new ArrayList<>();
+        List<MealRollupService.Contribution> after = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            MealRecordRequest request = requests.get(index);
+            UpsertedRow row = errors[index] == null
+                    ? inserted.get(new RecordKey(request.getSchoolId(), request.getMenuId(), request.getDate())) : null;
+            if (row != null) {
+                result.addCreated(index, row.id());
+                addContributions(request, row, before, after);
+            } else {
+                // Without an error, another submission created the record while this batch was written
+                result.addRejected(index, errors[index] != null ? errors[index] : existsMessage(request));
+            }
+        }
+        mealRollupService.recordsAdded(after);
+        return result;
+    }
+    
+    private void insertBulk(List<MealRecordRequest> rows, Map<RecordKey, UpsertedRow> inserted) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BULK_INSERT);
+            statement.setArray(1, connection.createArrayOf("bigint", column(rows, MealRecordRequest::getSchoolId)));
+            statement.setArray(2, connection.createArrayOf("bigint", column(rows, MealRecordRequest::getMenuId)));
+            statement.setArray(3, connection.createArrayOf("varchar", column(rows, request -> request.getDate().toString())));
+            statement.setArray(4, connection.createArrayOf("integer", column(rows, MealRecordRequest::getStudentsPresent)));
+            statement.setArray(5, connection.createArrayOf("integer", column(rows, MealRecordRequest::getMealsServed)));
+            statement.setArray(6, connection.createArrayOf("integer", column(rows, MealRecordRequest::getGrade1To5Present)));
+            statement.setArray(7, connection.createArrayOf("integer", column(rows, MealRecordRequest::getGrade6To8Present)));
+            statement.setArray(8, connection.createArrayOf("varchar", column(rows, MealRecordRequest::getTeacherInCharge)));
+            statement.setArray(9, connection.createArrayOf("varchar", column(rows, MealRecordRequest::getRemarks)));
+            statement.setArray(10, connection.createArrayOf("varchar", column(rows, MealRecordRequest::getPhotoUrl)));
+            statement.setArray(11, connection.createArrayOf("varchar", column(rows, request ->
+                    request.getMealQuality() != null ? request.getMealQuality().name() : null)));
+            return statement;
+        }, rs -> {
+            inserted.put(new RecordKey(rs.getLong(2), rs.getLong(3), rs.getObject(4, LocalDate.class)),
+                    new UpsertedRow(rs.getLong(1), true, 0, 0, rs.getBigDecimal(5), rs.getBigDecimal(6)));
+        });
+    }
+    
+    private static Object[] column(List<MealRecordRequest> rows, Function<MealRecordRequest, Object> value) {
+        return rows.stream().map(value).toArray();
+    }
+    
+    private Set<RecordKey> findExistingKeys(List<MealRecordRequest> requests, Set<Long> schoolIds) {
+        List<LocalDate> dates = requests.stream().map(MealRecordRequest::getDate).filter(date -> date != null).toList();
+        Set<RecordKey> keys = new HashSet<>();
+        if (schoolIds.isEmpty() || dates.isEmpty()) {
+            return keys;
+        }
+        LocalDate minDate = dates.stream().min(LocalDate::compareTo).get();
+        LocalDate maxDate = dates.stream().max(LocalDate::compareTo).get();
+        for (Object[] row : mealRecordRepository.findKeysForSchoolsInPeriod(schoolIds, minDate, maxDate)) {
+            keys.add(new RecordKey((Long) row[0], (Long) row[1], (LocalDate) row[2]));
+        }
+        return keys;
+    }
+    
+    private String validateBulkRow(MealRecordRequest request, Map<Long, School> schools, Map<Long, Menu> menus,
+                                   Set<RecordKey> takenKeys) {
+        String error = rejectionOf(request, schools, menus);
+        if (error != null) {
+            return error;
+        }
+        // Also catches the same record appearing twice in one request
+        if (!takenKeys.add(new RecordKey(request.getSchoolId(), request.getMenuId(), request.getDate()))) {
+            return existsMessage(request);
+        }
+        return null;
+    }
+    
+    private static String existsMessage(MealRecordRequest request) {
+        return "Meal record already exists for school " + request.getSchoolId()
+                + ", menu " + request.getMenuId() + " on " + request.getDate();
+    }
+    
+    private String rejectionOf(MealRecordRequest request, Map<Long, School> schools, Map<Long, Menu> menus) {
+        Set<ConstraintViolation<MealRecordRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        School school = schools.get(request.getSchoolId());
+        if (school == null || !Boolean.TRUE.equals(school.getActive())) {
+            return "School not found with id: " + request.getSchoolId();
+        }
+        Menu menu = menus.get(request.getMenuId());
+        if (menu == null || !Boolean.TRUE.equals(menu.getActive())) {
+            return "Menu not found with id: " + request.getMenuId();
+        }
+        return null;
     }
     
     public MealRecord updateMealRecord(Long id, MealRecord mealRecordDetails) {
         MealRecord mealRecord = mealRecordRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Meal record not found with id: " + id));
+        MealRollupService.Contribution before = MealRollupService.Contribution.of(mealRecord);
         
         mealRecord.setStudentsPresent(mealRecordDetails.getStudentsPresent());
         mealRecord.setMealsServed(mealRecordDetails.getMealsServed());
+        mealRecord.setGrade1To5Present(mealRecordDetails.getGrade1To5Present());
+        mealRecord.setGrade6To8Present(mealRecordDetails.getGrade6To8Present());
         mealRecord.setTeacherInCharge(mealRecordDetails.getTeacherInCharge());
         mealRecord.setRemarks(mealRecordDetails.getRemarks());
         mealRecord.setMealQuality(mealRecordDetails.getMealQuality());
         mealRecord.setPhotoUrl(mealRecordDetails.getPhotoUrl());
         
-        return mealRecordRepository.save(mealRecord);
+        MealRecord savedMealRecord = mealRecordRepository.save(mealRecord);
+        mealRollupService.recordChanged(before, savedMealRecord);
+        return savedMealRecord;
     }
     
     public void deleteMealRecord(Long id) {
-        mealRecordRepository.deleteById(id);
+        mealRecordRepository.findById(id).ifPresent(mealRecord -> {
+            mealRollupService.recordRemoved(mealRecord);
+            mealRecordRepository.delete(mealRecord);
+        });
     }
     
+    // Answered from the monthly/daily rollups instead of scanning meal_records
     public Long getTotalMealsServedInPeriod(LocalDate startDate, LocalDate endDate) {
-        Long total = mealRecordRepository.getTotalMealsServedInPeriod(startDate, endDate);
-        return total != null ? total : 0L;
+        return mealRollupService.getTotalMealsServedInPeriod(startDate, endDate);
     }
     
     public Long getTotalStudentsPresentInPeriod(LocalDate startDate, LocalDate endDate) {
-        Long total = mealRecordRepository.getTotalStudentsPresentInPeriod(startDate, endDate);
-        return total != null ? total : 0L;
+        return mealRollupService.getTotalStudentsPresentInPeriod(startDate, endDate);
     }
     
     public List<MealRecord> getTodaysMealRecords() {
@@ -86,4 +476,11 @@ public class MealRecordService {
         LocalDate endOfWeek = startOfWeek.plusDays(6);
         return getMealRecordsByPeriod(startOfWeek, endOfWeek);
     }
+    
+    private record RecordKey(Long schoolId, Long menuId, LocalDate date) {}
+    
+    public record Submission(MealRecordResponse record, boolean created) {}
+    
+    private record UpsertedRow(long id, boolean created, int previousMealsServed, int previousStudentsPresent,
+                               BigDecimal totalCost, BigDecimal cookingCost) {}
 }
\ No newline at end of file
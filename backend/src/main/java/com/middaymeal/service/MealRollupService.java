@@ -0,0 +1,314 @@
+package com.middaymeal.service;
+
+import com.middaymeal.entity.MealRecord;
+import com.middaymeal.repository.DailySummaryRepository;
+import com.middaymeal.repository.MealRecordRepository;
+import com.middaymeal.repository.MonthlySummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps daily_summaries and monthly_summaries in step with meal_records.
+ * Every write applies signed deltas through multi-row atomic upserts inside the caller's transaction,
+ * so concurrent submissions for the same school and day never lose an update and a bulk import
+ * costs one statement per thousand school-days rather than two per record.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class MealRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MealRollupService.class);
+    
+    // Keeps bind parameters per statement well under the PostgreSQL limit of 32767
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    
+    private static final String DAILY_UPSERT =
+            "INSERT INTO daily_summaries (school_id, date, record_count, meals_served, students_present, food_cost, cooking_cost, updated_at) " +
+            "VALUES %s " +
+            "ON CONFLICT (school_id, date) DO UPDATE SET " +
+            "record_count = daily_summaries.record_count + EXCLUDED.record_count, " +
+            "meals_served = daily_summaries.meals_served + EXCLUDED.meals_served, " +
+            "students_present = daily_summaries.students_present + EXCLUDED.students_present, " +
+            "food_cost = daily_summaries.food_cost + EXCLUDED.food_cost, " +
+            "cooking_cost = daily_summaries.cooking_cost + EXCLUDED.cooking_cost, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING school_id, date, record_count";
+    
+    private static final String MONTHLY_UPSERT =
+            "INSERT INTO monthly_summaries (school_id, year, month, total_meal_days, total_meals_served, total_students_present, " +
+            "average_attendance, total_food_cost, total_cooking_cost, generated_at) " +
+            "VALUES %s " +
+            "ON CONFLICT (school_id, year, month) DO UPDATE SET " +
+            "total_meal_days = monthly_summaries.total_meal_days + EXCLUDED.total_meal_days, " +
+            "total_meals_served = monthly_summaries.total_meals_served + EXCLUDED.total_meals_served, " +
+            "total_students_present = COALESCE(monthly_summaries.total_students_present, 0) + EXCLUDED.total_students_present, " +
+            "average_attendance = COALESCE(ROUND((COALESCE(monthly_summaries.total_students_present, 0) + EXCLUDED.total_students_present)::numeric " +
+            "/ NULLIF(monthly_summaries.total_meal_days + EXCLUDED.total_meal_days, 0), 2), 0), " +
+            "total_food_cost = monthly_summaries.total_food_cost + EXCLUDED.total_food_cost, " +
+            "total_cooking_cost = monthly_summaries.total_cooking_cost + EXCLUDED.total_cooking_cost, " +
+            "generated_at = CURRENT_TIMESTAMP";
+    
+    private final DailySummaryRepository dailySummaryRepository;
+    private final MonthlySummaryRepository monthlySummaryRepository;
+    private final MealRecordRepository mealRecordRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final ReportingViewService reportingViewService;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public MealRollupService(DailySummaryRepository dailySummaryRepository,
+                             MonthlySummaryRepository monthlySummaryRepository,
+                             MealRecordRepository mealRecordRepository,
+                             DashboardStatsService dashboardStatsService,
+                             ReportingViewService reportingViewService,
+                             JdbcTemplate jdbcTemplate) {
+        this.dailySummaryRepository = dailySummaryRepository;
+        this.monthlySummaryRepository = monthlySummaryRepository;
+        this.mealRecordRepository = mealRecordRepository;
+        this.dashboardStatsService = dashboardStatsService;
+        this.reportingViewService = reportingViewService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public void recordsAdded(Collection<Contribution> contributions) {
+        apply(contributions, List.of());
+    }
+    
+    public void recordRemoved(MealRecord mealRecord) {
+        apply(List.of(), List.of(Contribution.of(mealRecord)));
+    }
+    
+    public void recordChanged(Contribution before, MealRecord after) {
+        apply(List.of(Contribution.of(after)), List.of(before));
+    }
+    
+    public void recordsChanged(Collection<Contribution> before, Collection<Contribution> after) {
+        apply(after, before);
+    }
+    
+    private void apply(Collection<Contribution> added, Collection<Contribution> removed) {
+        // Merge everything hitting the same school-day first: one upsert statement cannot touch a row twice
+        Map<DayKey, Delta> dailyDeltas = new LinkedHashMap<>();
+        added.forEach(c -> dailyDeltas.computeIfAbsent(DayKey.of(c), key -> new Delta()).add(c, 1));
+        removed.forEach(c -> dailyDeltas.computeIfAbsent(DayKey.of(c), key -> new Delta()).add(c, -1));
+        dailyDeltas.values().removeIf(Delta::isEmpty);
+        if (dailyDeltas.isEmpty()) {
+            return;
+        }
+        
+        Map<MonthKey, Delta> monthlyDeltas = new LinkedHashMap<>();
+        List<Map.Entry<DayKey, Delta>> dailyRows = new ArrayList<>(dailyDeltas.entrySet());
+        for (int from = 0; from < dailyRows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            upsertDaily(dailyRows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, dailyRows.size())), monthlyDeltas);
+        }
+        
+        List<Map.Entry<MonthKey, Delta>> monthlyRows = new ArrayList<>(monthlyDeltas.entrySet());
+        for (int from = 0; from < monthlyRows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            upsertMonthly(monthlyRows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, monthlyRows.size())));
+        }
+        
+        Map<LocalDate, Long> mealsByDate = new HashMap<>();
+        dailyDeltas.forEach((key, delta) -> mealsByDate.merge(key.date(), delta.mealsServed, Long::sum));
+        mealsByDate.forEach(dashboardStatsService::mealsServedChanged);
+        reportingViewService.mealRecordsChanged();
+    }
+    
+    private void upsertDaily(List<Map.Entry<DayKey, Delta>> rows, Map<MonthKey, Delta> monthlyDeltas) {
+        List<Object> args = new ArrayList<>(rows.size() * 7);
+        for (Map.Entry<DayKey, Delta> row : rows) {
+            Delta delta = row.getValue();
+            args.addAll(List.of(row.getKey().schoolId(), row.getKey().date(), delta.records,
+                    delta.mealsServed, delta.studentsPresent, delta.foodCost, delta.cookingCost));
+        }
+        String sql = String.format(DAILY_UPSERT, String.join(", ",
+                Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)")));
+        
+        Map<DayKey, Delta> byKey = new HashMap<>();
+        rows.forEach(row -> byKey.put(row.getKey(), row.getValue()));
+        
+        // RETURNING gives the post-update count under the row lock, so the meal-day transition is exact
+        jdbcTemplate.query(sql, rs -> {
+            DayKey key = new DayKey(rs.getLong("school_id"), rs.getObject("date", LocalDate.class));
+            int recordCount = rs.getInt("record_count");
+            Delta delta = byKey.get(key);
+            int previousCount = recordCount - delta.records;
+            
+            int mealDayDelta = 0;
+            if (previousCount <= 0 && recordCount > 0) {
+                mealDayDelta = 1;
+            } else if (previousCount > 0 && recordCount <= 0) {
+                mealDayDelta = -1;
+            }
+            monthlyDeltas.computeIfAbsent(MonthKey.of(key), monthKey -> new Delta()).merge(delta, mealDayDelta);
+        }, args.toArray());
+    }
+    
+    private void upsertMonthly(List<Map.Entry<MonthKey, Delta>> rows) {
+        List<Object> args = new ArrayList<>(rows.size() * 9);
+        for (Map.Entry<MonthKey, Delta> row : rows) {
+            MonthKey key = row.getKey();
+            Delta delta = row.getValue();
+            BigDecimal averageAttendance = delta.mealDays > 0
+                    ? BigDecimal.valueOf(delta.studentsPresent).divide(BigDecimal.valueOf(delta.mealDays), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            args.addAll(List.of(key.schoolId(), key.year(), key.month(), delta.mealDays, delta.mealsServed,
+                    delta.studentsPresent, averageAttendance, delta.foodCost, delta.cookingCost));
+        }
+        String sql = String.format(MONTHLY_UPSERT, String.join(", ",
+                Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)")));
+        jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    public Long getTotalMealsServedInPeriod(LocalDate startDate, LocalDate endDate) {
+        return sumPeriod(startDate, endDate, true);
+    }
+    
+    public Long getTotalStudentsPresentInPeriod(LocalDate startDate, LocalDate endDate) {
+        return sumPeriod(startDate, endDate, false);
+    }
+    
+    // Whole months come from monthly_summaries; the partial months at either edge from daily_summaries
+    private Long sumPeriod(LocalDate startDate, LocalDate endDate, boolean mealsServed) {
+        if (startDate.isAfter(endDate)) {
+            return 0L;
+        }
+        LocalDate firstFullMonth = startDate.getDayOfMonth() == 1 ? startDate : startDate.plusMonths(1).withDayOfMonth(1);
+        LocalDate lastFullMonthEnd = endDate.getDayOfMonth() == endDate.lengthOfMonth()
+                ? endDate
+                : endDate.withDayOfMonth(1).minusDays(1);
+        
+        if (firstFullMonth.isAfter(lastFullMonthEnd)) {
+            return sumDaily(startDate, endDate, mealsServed);
+        }
+        
+        long total = mealsServed
+                ? monthlySummaryRepository.sumMealsServed(monthIndex(firstFullMonth), monthIndex(lastFullMonthEnd))
+                : monthlySummaryRepository.sumStudentsPresent(monthIndex(firstFullMonth), monthIndex(lastFullMonthEnd));
+        if (startDate.isBefore(firstFullMonth)) {
+            total += sumDaily(startDate, firstFullMonth.minusDays(1), mealsServed);
+        }
+        if (endDate.isAfter(lastFullMonthEnd)) {
+            total += sumDaily(lastFullMonthEnd.plusDays(1), endDate, mealsServed);
+        }
+        return total;
+    }
+    
+    private long sumDaily(LocalDate startDate, LocalDate endDate, boolean mealsServed) {
+        return mealsServed
+                ? dailySummaryRepository.sumMealsServed(startDate, endDate)
+                : dailySummaryRepository.sumStudentsPresent(startDate, endDate);
+    }
+    
+    /**
+     * Recomputes both rollup tables from meal_records for every month touching the given range.
+     * Used for the initial backfill and after out-of-band edits to meal_records.
+     */
+    @Transactional
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDate from = startDate.withDayOfMonth(1);
+        LocalDate to = endDate.withDayOfMonth(endDate.lengthOfMonth());
+        
+        int deletedDays = dailySummaryRepository.deleteInPeriod(from, to);
+        monthlySummaryRepository.deleteInMonthRange(monthIndex(from), monthIndex(to));
+        int days = dailySummaryRepository.rebuildFromMealRecords(from, to);
+        int months = monthlySummaryRepository.rebuildFromDailySummaries(from, to);
+        
+        dashboardStatsService.refreshMealCounters();
+        logger.info("Rebuilt meal rollups for {} to {}: {} school-days (replacing {}), {} school-months",
+                from, to, days, deletedDays, months);
+    }
+    
+    @Transactional
+    public void rebuildAll() {
+        LocalDate earliest = mealRecordRepository.findEarliestDate();
+        LocalDate latest = mealRecordRepository.findLatestDate();
+        if (earliest == null) {
+            logger.info("No meal records found, nothing to rebuild");
+            return;
+        }
+        rebuild(earliest, latest);
+    }
+    
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+    
+    private record DayKey(Long schoolId, LocalDate date) {
+        
+        static DayKey of(Contribution contribution) {
+            return new DayKey(contribution.schoolId(), contribution.date());
+        }
+    }
+    
+    private record MonthKey(Long schoolId, int year, int month) {
+        
+        static MonthKey of(DayKey day) {
+            return new MonthKey(day.schoolId(), day.date().getYear(), day.date().getMonthValue());
+        }
+    }
+    
+    // Signed change to one rollup row
+    private static final class Delta {
+        
+        private int records;
+        private int mealDays;
+        private long mealsServed;
+        private long studentsPresent;
+        private BigDecimal foodCost = BigDecimal.ZERO;
+        private BigDecimal cookingCost = BigDecimal.ZERO;
+        
+        void add(Contribution contribution, int sign) {
+            records += sign;
+            mealsServed += sign * (long) contribution.mealsServed();
+            studentsPresent += sign * (long) contribution.studentsPresent();
+            foodCost = foodCost.add(contribution.totalCost().multiply(BigDecimal.valueOf(sign)));
+            cookingCost = cookingCost.add(contribution.cookingCost().multiply(BigDecimal.valueOf(sign)));
+        }
+        
+        void merge(Delta daily, int mealDayDelta) {
+            mealDays += mealDayDelta;
+            mealsServed += daily.mealsServed;
+            studentsPresent += daily.studentsPresent;
+            foodCost = foodCost.add(daily.foodCost);
+            cookingCost = cookingCost.add(daily.cookingCost);
+        }
+        
+        boolean isEmpty() {
+            return records == 0 && mealsServed == 0 && studentsPresent == 0
+                    && foodCost.signum() == 0 && cookingCost.signum() == 0;
+        }
+    }
+    
+    /**
+     * The values a meal record contributes to the rollups, captured before an update overwrites them.
+     */
+    public record Contribution(Long schoolId, LocalDate date, int mealsServed, int studentsPresent,
+                               BigDecimal totalCost, BigDecimal cookingCost) {
+        
+        public static Contribution of(MealRecord mealRecord) {
+            return new Contribution(
+                    mealRecord.getSchool().getId(),
+                    mealRecord.getDate(),
+                    mealRecord.getMealsServed() != null ? mealRecord.getMealsServed() : 0,
+                    mealRecord.getStudentsPresent() != null ? mealRecord.getStudentsPresent() : 0,
+                    mealRecord.getTotalCost() != null ? mealRecord.getTotalCost() : BigDecimal.ZERO,
+                    mealRecord.getCookingCost() != null ? mealRecord.getCookingCost() : BigDecimal.ZERO);
+        }
+    }
+}
\ No newline at end of file
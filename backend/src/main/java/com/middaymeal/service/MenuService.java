@@ -1,65 +1,109 @@
 package com.middaymeal.service;
 
+import com.middaymeal.dto.MenuDetail;
+import com.middaymeal.dto.MenuSummary;
 import com.middaymeal.entity.Menu;
-import com.middaymeal.entity.MenuFoodItem;
 import com.middaymeal.repository.MenuRepository;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class MenuService {
     
+    public static final String MENU_BY_DATE_CACHE = "menusByDateAndMealType";
+    public static final String MENUS_BY_MONTH_CACHE = "menusByMonth";
+    
     private final MenuRepository menuRepository;
+    private final ReportingViewService reportingViewService;
+    private final ReferenceDataVersions referenceDataVersions;
+    private final Cache menusByDate;
+    private final Cache menusByMonth;
     
     @Autowired
-    public MenuService(MenuRepository menuRepository) {
+    public MenuService(MenuRepository menuRepository, ReportingViewService reportingViewService,
+                       ReferenceDataVersions referenceDataVersions, CacheManager cacheManager) {
         this.menuRepository = menuRepository;
+        this.reportingViewService = reportingViewService;
+        this.referenceDataVersions = referenceDataVersions;
+        this.menusByDate = cacheManager.getCache(MENU_BY_DATE_CACHE);
+        this.menusByMonth = cacheManager.getCache(MENUS_BY_MONTH_CACHE);
+    }
+    
+    public List<MenuSummary> getAllActiveMenus() {
+        return menuRepository.findActiveSummaries();
     }
     
-    public List<Menu> getAllActiveMenus() {
-        return menuRepository.findByActiveTrue();
+    public Optional<MenuDetail> getMenuById(Long id) {
+        return menuRepository.findWithFoodItemsById(id).map(MenuDetail::new);
     }
     
-    public Optional<Menu> getMenuById(Long id) {
-        return menuRepository.findById(id);
+    // A missing menu is cached too, so days without a menu do not reach the database either
+    public Optional<MenuDetail> getMenuByDateAndMealType(LocalDate date, Menu.MealType mealType) {
+        MenuDetail menu = menusByDate.get(new DateKey(date, mealType), () ->
+                menuRepository.findWithFoodItemsByDateAndMealType(date, mealType).map(MenuDetail::new).orElse(null));
+        return Optional.ofNullable(menu);
     }
     
-    public Optional<Menu> getMenuByDateAndMealType(LocalDate date, Menu.MealType mealType) {
-        return menuRepository.findByDateAndMealType(date, mealType);
+    public List<MenuSummary> getMenusForMonth(Integer month, Integer year) {
+        return menusByMonth.get(new MonthKey(month, year), () -> menuRepository.findSummariesForMonth(month, year));
     }
     
-    public List<Menu> getMenusForMonth(Integer month, Integer year) {
-        return menuRepository.findByMonthAndYearAndActiveTrue(month, year);
+    public List<MenuSummary> getMenusForPeriod(LocalDate startDate, LocalDate endDate) {
+        return menuRepository.findSummariesForPeriod(startDate, endDate);
     }
     
-    public List<Menu> getMenusForPeriod(LocalDate startDate, LocalDate endDate) {
-        return menuRepository.findByDateBetweenAndActiveTrue(startDate, endDate);
+    public List<MenuSummary> getMenusForPeriodAndMealType(LocalDate startDate, LocalDate endDate, Menu.MealType mealType) {
+        return menuRepository.findSummariesForPeriod(startDate, endDate, mealType);
     }
     
-    public List<Menu> getMenusForPeriodAndMealType(LocalDate startDate, LocalDate endDate, Menu.MealType mealType) {
-        return menuRepository.findMenusForPeriod(startDate, endDate, mealType);
+    public List<MenuDetail> getMenusWithFoodItemsForMonth(Integer month, Integer year) {
+        return menuRepository.findWithFoodItemsForMonth(month, year).stream().map(MenuDetail::new).toList();
+    }
+    
+    public List<MenuDetail> getMenusWithFoodItemsForPeriod(LocalDate startDate, LocalDate endDate,
+                                                           Menu.MealType mealType) {
+        List<Menu> menus = mealType != null
+                ? menuRepository.findWithFoodItemsForPeriod(startDate, endDate, mealType)
+                : menuRepository.findWithFoodItemsForPeriod(startDate, endDate);
+        return menus.stream().map(MenuDetail::new).toList();
     }
     
     public Menu createMenu(Menu menu) {
-        return menuRepository.save(menu);
+        Menu savedMenu = menuRepository.save(menu);
+        evict(savedMenu);
+        reportingViewService.menusChanged();
+        referenceDataVersions.changed(ReferenceData.MENUS);
+        return savedMenu;
     }
     
     public Menu updateMenu(Long id, Menu menuDetails) {
         Menu menu = menuRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu not found with id: " + id));
+        // The date or meal type may change, so the entries under the old keys go as well
+        evict(menu);
         
         menu.setDate(menuDetails.getDate());
         menu.setMealType(menuDetails.getMealType());
         menu.setMenuDescription(menuDetails.getMenuDescription());
         menu.setMenuDescriptionMarathi(menuDetails.getMenuDescriptionMarathi());
         
-        return menuRepository.save(menu);
+        Menu savedMenu = menuRepository.save(menu);
+        evict(savedMenu);
+        reportingViewService.menusChanged();
+        referenceDataVersions.changed(ReferenceData.MENUS);
+        return savedMenu;
     }
     
     public void deleteMenu(Long id) {
@@ -67,16 +111,52 @@ public class MenuService {
                 .orElseThrow(() -> new RuntimeException("Menu not found with id: " + id));
         menu.setActive(false);
         menuRepository.save(menu);
+        evict(menu);
+        reportingViewService.menusChanged();
+        referenceDataVersions.changed(ReferenceData.MENUS);
     }
     
-    public List<Menu> getCurrentWeekMenus() {
+    // Served from the cached month lists; a week can span two months
+    public List<MenuSummary> getCurrentWeekMenus() {
         LocalDate startOfWeek = LocalDate.now().with(java.time.DayOfWeek.MONDAY);
         LocalDate endOfWeek = startOfWeek.plusDays(6);
-        return getMenusForPeriod(startOfWeek, endOfWeek);
+        YearMonth first = YearMonth.from(startOfWeek);
+        YearMonth last = YearMonth.from(endOfWeek);
+        Stream<MenuSummary> menus = getMenusForMonth(first.getMonthValue(), first.getYear()).stream();
+        if (!last.equals(first)) {
+            menus = Stream.concat(menus, getMenusForMonth(last.getMonthValue(), last.getYear()).stream());
+        }
+        return menus
+                .filter(menu -> !menu.date().isBefore(startOfWeek) && !menu.date().isAfter(endOfWeek))
+                .sorted(Comparator.comparing(MenuSummary::date).thenComparing(MenuSummary::mealType))
+                .toList();
+    }
+    
+    public List<MenuDetail> getCurrentWeekMenusWithFoodItems() {
+        LocalDate startOfWeek = LocalDate.now().with(java.time.DayOfWeek.MONDAY);
+        return getMenusWithFoodItemsForPeriod(startOfWeek, startOfWeek.plusDays(6), null).stream()
+                .sorted(Comparator.comparing(MenuDetail::date).thenComparing(MenuDetail::mealType))
+                .toList();
     }
     
-    public List<Menu> getCurrentMonthMenus() {
+    public List<MenuSummary> getCurrentMonthMenus() {
         LocalDate now = LocalDate.now();
         return getMenusForMonth(now.getMonthValue(), now.getYear());
     }
+    
+    // Runs once the transaction is over (commit or rollback), so a concurrent read cannot
+    // re-cache the old rows, and nothing read inside a rolled-back transaction stays cached
+    private void evict(Menu menu) {
+        DateKey dateKey = new DateKey(menu.getDate(), menu.getMealType());
+        MonthKey monthKey = new MonthKey(menu.getDate().getMonthValue(), menu.getDate().getYear());
+        Runnable eviction = () -> {
+            menusByDate.evict(dateKey);
+            menusByMonth.evict(monthKey);
+        };
+        TransactionCallbacks.afterCompletion(eviction);
+    }
+    
+    private record DateKey(LocalDate date, Menu.MealType mealType) {}
+    
+    private record MonthKey(Integer month, Integer year) {}
 }
\ No newline at end of file
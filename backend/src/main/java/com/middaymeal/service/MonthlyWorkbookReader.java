@@ -0,0 +1,240 @@
+package com.middaymeal.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads the monthly MDM workbook (one school, one month) with the XSSF event API: sheets are
+// SAX-parsed straight out of the package, so the workbook is never loaded as a whole
+class MonthlyWorkbookReader {
+    
+    // Daily register: date, attendance for 1-5 and 6-8, reference and actual menu
+    static final String REGISTER_SHEET = "MASTER DATA";
+    private static final int REGISTER_FIRST_ROW = 5;
+    private static final String DATE_COLUMN = "D";
+    private static final String PRESENT_1_TO_5_COLUMN = "H";
+    private static final String PRESENT_6_TO_8_COLUMN = "J";
+    private static final String REFERENCE_MENU_COLUMN = "K";
+    private static final String ACTUAL_MENU_COLUMN = "L";
+    
+    // Per-student quantities (grams) of each ingredient for every menu, grades 1-5
+    static final String QUANTITY_SHEET = "प्रमाण 1-5";
+    private static final int QUANTITY_HEADER_ROW = 3;
+    private static final String MENU_NAME_COLUMN = "D";
+    private static final int FIRST_INGREDIENT_COLUMN = CellReference.convertColStringToIndex("H");
+    private static final int LAST_INGREDIENT_COLUMN = CellReference.convertColStringToIndex("W");
+    
+    static final String HOLIDAY = "सुट्टी";
+    
+    record RegisterDay(int rowNumber, LocalDate date, String menuName, Integer present1to5, Integer present6to8,
+                       boolean holiday) {}
+    
+    record MenuQuantities(String menuName, Map<String, BigDecimal> gramsPerStudent) {}
+    
+    static class Contents {
+        
+        final List<RegisterDay> days = new ArrayList<>();
+        final Map<String, MenuQuantities> quantities = new LinkedHashMap<>();
+        final List<String> warnings = new ArrayList<>();
+    }
+    
+    static Contents read(File workbook) throws IOException {
+        Contents contents = new Contents();
+        try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            boolean registerFound = false;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    String name = sheets.getSheetName().trim();
+                    if (REGISTER_SHEET.equals(name)) {
+                        parse(sheet, strings, styles, new RegisterHandler(contents));
+                        registerFound = true;
+                    } else if (QUANTITY_SHEET.equals(name)) {
+                        parse(sheet, strings, styles, new QuantityHandler(contents));
+                    }
+                }
+            }
+            if (!registerFound) {
+                throw new IllegalArgumentException("Workbook has no '" + REGISTER_SHEET + "' sheet");
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException("Not a readable .xlsx workbook: " + e.getMessage(), e);
+        }
+        return contents;
+    }
+    
+    private static void parse(InputStream sheet, ReadOnlySharedStringsTable strings, StylesTable styles,
+                              XSSFSheetXMLHandler.SheetContentsHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        // Cached formula results are used, which is what the sheet shows when it was last saved
+        parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, handler, new RawNumberFormatter(), false));
+        parser.parse(new InputSource(sheet));
+    }
+    
+    // Collects the cells of one row keyed by column letter and hands them over at the end of the row
+    private abstract static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        
+        private final Map<String, String> cells = new HashMap<>();
+        private int rowNumber;
+        
+        @Override
+        public void startRow(int rowNum) {
+            rowNumber = rowNum + 1;
+            cells.clear();
+        }
+        
+        @Override
+        public void endRow(int rowNum) {
+            if (!cells.isEmpty()) {
+                row(rowNumber, cells);
+            }
+        }
+        
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null) {
+                return;
+            }
+            String value = formattedValue.trim();
+            // Error results such as #VALUE! come through as "ERROR:..." and are treated as empty
+            if (!value.isEmpty() && !value.startsWith("ERROR:") && !value.startsWith("#")) {
+                cells.put(new CellReference(cellReference).getCellRefParts()[2], value);
+            }
+        }
+        
+        abstract void row(int rowNumber, Map<String, String> cells);
+    }
+    
+    private static class RegisterHandler extends RowHandler {
+        
+        private final Contents contents;
+        
+        RegisterHandler(Contents contents) {
+            this.contents = contents;
+        }
+        
+        @Override
+        void row(int rowNumber, Map<String, String> cells) {
+            if (rowNumber < REGISTER_FIRST_ROW) {
+                return;
+            }
+            LocalDate date = parseDate(cells.get(DATE_COLUMN));
+            if (date == null) {
+                // Totals and the unused 31st row of shorter months
+                return;
+            }
+            String actualMenu = cells.get(ACTUAL_MENU_COLUMN);
+            String menuName = actualMenu != null ? actualMenu : cells.get(REFERENCE_MENU_COLUMN);
+            boolean holiday = menuName == null || HOLIDAY.equals(menuName);
+            contents.days.add(new RegisterDay(rowNumber, date, menuName,
+                    parseCount(cells.get(PRESENT_1_TO_5_COLUMN), rowNumber, contents),
+                    parseCount(cells.get(PRESENT_6_TO_8_COLUMN), rowNumber, contents),
+                    holiday));
+        }
+    }
+    
+    private static class QuantityHandler extends RowHandler {
+        
+        private final Contents contents;
+        private final Map<String, String> ingredientNames = new LinkedHashMap<>();
+        
+        QuantityHandler(Contents contents) {
+            this.contents = contents;
+        }
+        
+        @Override
+        void row(int rowNumber, Map<String, String> cells) {
+            if (rowNumber == QUANTITY_HEADER_ROW) {
+                for (int column = FIRST_INGREDIENT_COLUMN; column <= LAST_INGREDIENT_COLUMN; column++) {
+                    String letter = CellReference.convertNumToColString(column);
+                    if (cells.containsKey(letter)) {
+                        ingredientNames.put(letter, cells.get(letter));
+                    }
+                }
+                return;
+            }
+            String menuName = cells.get(MENU_NAME_COLUMN);
+            if (rowNumber < QUANTITY_HEADER_ROW || menuName == null || HOLIDAY.equals(menuName)
+                    || contents.quantities.containsKey(menuName)) {
+                return;
+            }
+            Map<String, BigDecimal> grams = new LinkedHashMap<>();
+            ingredientNames.forEach((letter, ingredient) -> {
+                BigDecimal quantity = parseDecimal(cells.get(letter));
+                if (quantity != null && quantity.signum() > 0) {
+                    grams.put(ingredient, quantity);
+                }
+            });
+            contents.quantities.put(menuName, new MenuQuantities(menuName, grams));
+        }
+    }
+    
+    private static LocalDate parseDate(String value) {
+        BigDecimal serial = parseDecimal(value);
+        if (serial == null || !DateUtil.isValidExcelDate(serial.doubleValue())) {
+            return null;
+        }
+        return DateUtil.getLocalDateTime(serial.doubleValue()).toLocalDate();
+    }
+    
+    private static Integer parseCount(String value, int rowNumber, Contents contents) {
+        if (value == null || "-".equals(value)) {
+            return null;
+        }
+        BigDecimal count = parseDecimal(value);
+        if (count == null || count.signum() < 0 || count.stripTrailingZeros().scale() > 0) {
+            contents.warnings.add("Row " + rowNumber + ": '" + value + "' is not a student count");
+            return null;
+        }
+        return count.intValueExact();
+    }
+    
+    private static BigDecimal parseDecimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // Hands numeric cells over unformatted so dates arrive as serial numbers regardless of the cell's date format
+    private static class RawNumberFormatter extends DataFormatter {
+        
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            return NumberToTextConverter.toText(value);
+        }
+    }
+}
\ No newline at end of file
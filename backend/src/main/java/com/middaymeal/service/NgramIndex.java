@@ -0,0 +1,152 @@
+package com.middaymeal.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory substring index over a few text fields per entry. The fields are joined with spaces into
+// one search text, as the database search does (search_indexes.sql), so both answer a query alike. It
+// is broken into overlapping trigrams of code points, so Devanagari names index the same way as English
+// ones regardless of the database locale. A query's candidates are the entries holding all of its
+// trigrams, which are then checked with a plain contains and ranked prefix-first by field.
+class NgramIndex<T> {
+    
+    private static final int N = 3;
+    
+    private record Entry<T>(T value, String sortKey, List<String> fields, String text) {}
+    
+    private record Hit<T>(Entry<T> entry, int rank) {}
+    
+    private static final Comparator<Hit<?>> HIT_ORDER =
+            Comparator.<Hit<?>>comparingInt(Hit::rank).thenComparing(hit -> hit.entry().sortKey());
+    
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    
+    // The first field is the entry's name: a query it starts with ranks above one where another field does
+    synchronized void put(Long id, T value, String... fields) {
+        remove(id);
+        List<String> normalized = new ArrayList<>();
+        for (String field : fields) {
+            normalized.add(field != null ? normalize(field) : "");
+        }
+        Entry<T> entry = new Entry<>(value, normalized.get(0), normalized, String.join(" ", normalized));
+        entries.put(id, entry);
+        for (String gram : grams(entry.text())) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+    
+    synchronized void remove(Long id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : grams(entry.text())) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    List<T> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        // Only the best `limit` hits are kept, so a query matching most entries costs no sort of them all
+        PriorityQueue<Hit<T>> best = new PriorityQueue<>(limit, HIT_ORDER.reversed());
+        Collection<Long> candidates;
+        List<Set<Long>> filters = new ArrayList<>();
+        if (needle.codePointCount(0, needle.length()) < N) {
+            // Shorter than a trigram: nothing to look up, every entry is a candidate
+            candidates = entries.keySet();
+        } else {
+            int smallest = 0;
+            for (String gram : grams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                filters.add(ids);
+                if (ids.size() < filters.get(smallest).size()) {
+                    smallest = filters.size() - 1;
+                }
+            }
+            // Walk the rarest trigram's entries and check the others by lookup
+            candidates = filters.remove(smallest);
+        }
+        for (Long id : candidates) {
+            if (!containsAll(filters, id)) {
+                continue;
+            }
+            Entry<T> entry = entries.get(id);
+            int rank = entry != null ? rank(entry, needle) : -1;
+            if (rank < 0) {
+                continue;
+            }
+            Hit<T> hit = new Hit<>(entry, rank);
+            if (best.size() < limit) {
+                best.offer(hit);
+            } else if (HIT_ORDER.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.offer(hit);
+            }
+        }
+        List<Hit<T>> hits = new ArrayList<>(best);
+        hits.sort(HIT_ORDER);
+        return hits.stream().map(hit -> hit.entry().value()).toList();
+    }
+    
+    private static boolean containsAll(List<Set<Long>> sets, Long id) {
+        for (Set<Long> set : sets) {
+            if (!set.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 0 when the name starts with the query, 1 when another field does, 2 for a match further in
+    // (possibly across fields), -1 for none
+    private static int rank(Entry<?> entry, String needle) {
+        if (!entry.text().contains(needle)) {
+            return -1;
+        }
+        for (int i = 0; i < entry.fields().size(); i++) {
+            if (entry.fields().get(i).startsWith(needle)) {
+                return i == 0 ? 0 : 1;
+            }
+        }
+        return 2;
+    }
+    
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i + N <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, N));
+        }
+        return grams;
+    }
+    
+    static String normalize(String text) {
+        return Normalizer.normalize(text.trim(), Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
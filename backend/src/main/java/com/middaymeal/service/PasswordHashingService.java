@@ -0,0 +1,93 @@
+package com.middaymeal.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool instead of the request threads.
+ * A BCrypt check is deliberately slow CPU work, so a morning login rush would otherwise take every
+ * core and request thread on the node. The pool leaves the remaining cores to ordinary requests,
+ * and once its queue is full further work is refused at once with {@link SaturatedException},
+ * which the controllers answer with 429 so clients back off and retry.
+ */
+@Service
+public class PasswordHashingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${spring.security.password-hashing.threads:0}") int threads,
+                                  @Value("${spring.security.password-hashing.queue-capacity:100}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        // By default half the cores, so hashing never has the whole node
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests refused because the hashing queue was full")
+                .register(meterRegistry);
+        logger.info("Password hashing pool: {} threads, queue of {}", poolSize, queueCapacity);
+    }
+    
+    // Completes on a hashing thread; the caller's thread is free meanwhile
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword),
+                "Too many logins in progress, please retry shortly");
+    }
+    
+    // For callers that need the hash before they can go on, such as saving a user
+    public String encode(String rawPassword) {
+        try {
+            return submit(() -> passwordEncoder.encode(rawPassword),
+                    "Too many password changes in progress, please retry shortly").join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    // The refusal names what the caller was doing: a login, or setting a user's password
+    private <T> CompletableFuture<T> submit(Supplier<T> work, String refusal) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SaturatedException(refusal, 1);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,333 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.PhotoUpload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores meal photos under app.upload.dir. An upload is copied from the request in 64KB chunks to a
+ * temporary file, hashed on the way, and then linked as photos/ab/abcd...jpg by its SHA-256, so the
+ * same photo sent again is kept once. Nothing holds a whole photo in memory. Thumbnails are drawn
+ * afterwards on a small pool, from a subsampled decode of the photo; once its queue is full they are
+ * left to be drawn when first asked for.
+ */
+@Service
+public class PhotoStorageService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStorageService.class);
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final Pattern PHOTO_NAME = Pattern.compile("([0-9a-f]{64})\\.(jpg|png)");
+    
+    public enum PhotoType {
+        JPEG("jpg", "image/jpeg"), PNG("png", "image/png");
+        
+        private final String extension;
+        private final String contentType;
+        
+        PhotoType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+        
+        public String contentType() {
+            return contentType;
+        }
+        
+        // By the file's signature, not the name or content type the client claims
+        private static PhotoType of(byte[] header, int length) {
+            if (length >= 3 && (header[0] & 0xff) == 0xff && (header[1] & 0xff) == 0xd8 && (header[2] & 0xff) == 0xff) {
+                return JPEG;
+            }
+            if (length >= 8 && (header[0] & 0xff) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                    && header[4] == '\r' && header[5] == '\n' && header[6] == 0x1a && header[7] == '\n') {
+                return PNG;
+            }
+            return null;
+        }
+        
+        private static PhotoType ofExtension(String extension) {
+            return extension.equals(JPEG.extension) ? JPEG : PNG;
+        }
+    }
+    
+    public record StoredFile(Path path, PhotoType type, String sha256) {}
+    
+    public static class TooLargeException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        public TooLargeException(DataSize maxSize) {
+            super("Photo is larger than " + maxSize.toMegabytes() + "MB");
+        }
+    }
+    
+    private final Path photoDir;
+    private final Path thumbnailDir;
+    private final Path incomingDir;
+    private final DataSize maxSize;
+    private final int thumbnailSize;
+    private final ThreadPoolExecutor thumbnailExecutor;
+    private final MeterRegistry meterRegistry;
+    // Photos whose thumbnail is queued or being drawn, so one is not drawn twice at once
+    private final Set<String> pendingThumbnails = ConcurrentHashMap.newKeySet();
+    
+    @Autowired
+    public PhotoStorageService(@Value("${app.upload.dir:uploads/}") String uploadDir,
+                               @Value("${app.upload.max-size:10MB}") DataSize maxSize,
+                               @Value("${app.upload.thumbnail-size:320}") int thumbnailSize,
+                               @Value("${app.upload.thumbnail-threads:2}") int thumbnailThreads,
+                               @Value("${app.upload.thumbnail-queue-capacity:1000}") int queueCapacity,
+                               MeterRegistry meterRegistry) throws IOException {
+        Path root = Path.of(uploadDir).toAbsolutePath();
+        this.photoDir = root.resolve("photos");
+        this.thumbnailDir = root.resolve("thumbnails");
+        // Beside the photos: a finished upload is linked into place, which needs the same file system
+        this.incomingDir = root.resolve("incoming");
+        Files.createDirectories(incomingDir);
+        this.maxSize = maxSize;
+        this.thumbnailSize = thumbnailSize;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "photo-thumbnails-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, thumbnailExecutor, "photoThumbnails");
+        logger.info("Storing photos in {}; thumbnail pool: {} threads, queue of {}", root, thumbnailThreads, queueCapacity);
+    }
+    
+    /**
+     * Reads a photo from body to its end and stores it, unless a photo with the same content is stored
+     * already. Throws IllegalArgumentException for anything but a JPEG or PNG photo, and
+     * {@link TooLargeException} as soon as more than app.upload.max-size has arrived.
+     */
+    public PhotoUpload store(InputStream body) throws IOException {
+        Path incoming = Files.createTempFile(incomingDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            byte[] header = new byte[8];
+            int headerLength = 0;
+            long size = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(incoming, StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxSize.toBytes()) {
+                        throw new TooLargeException(maxSize);
+                    }
+                    if (headerLength < header.length) {
+                        int length = Math.min(header.length - headerLength, buffer.remaining());
+                        buffer.duplicate().get(header, headerLength, length);
+                        headerLength += length;
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Photo is empty");
+            }
+            PhotoType type = PhotoType.of(header, headerLength);
+            if (type == null) {
+                throw new IllegalArgumentException("Only JPEG and PNG photos are accepted");
+            }
+            
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path photo = photoPath(sha256, type);
+            boolean duplicate = Files.exists(photo);
+            if (!duplicate) {
+                Files.createDirectories(photo.getParent());
+                try {
+                    // Linking fails when the name exists, so of two uploads of one photo at once only one stores it
+                    Files.createLink(photo, incoming);
+                } catch (FileAlreadyExistsException e) {
+                    duplicate = true;
+                }
+            }
+            meterRegistry.counter("photo.uploads", "result", duplicate ? "duplicate" : "stored").increment();
+            if (!Files.exists(thumbnailPath(sha256))) {
+                scheduleThumbnail(sha256, photo);
+            }
+            return new PhotoUpload(sha256, "/upload/photos/" + photo.getFileName(),
+                    "/upload/thumbnails/" + sha256 + ".jpg", type.contentType(), size, duplicate);
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+    
+    // Empty for a name that is not a stored photo's, which also keeps the name from leaving the photo directory
+    public Optional<StoredFile> findPhoto(String name) {
+        Matcher matcher = PHOTO_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        PhotoType type = PhotoType.ofExtension(matcher.group(2));
+        Path photo = photoPath(matcher.group(1), type);
+        return Files.exists(photo) ? Optional.of(new StoredFile(photo, type, matcher.group(1))) : Optional.empty();
+    }
+    
+    /**
+     * The thumbnail of a stored photo; until it has been drawn, the photo itself (its thumbnail is
+     * queued again, in case the queue was full when the photo arrived).
+     */
+    public Optional<StoredFile> findThumbnail(String name) {
+        Matcher matcher = PHOTO_NAME.matcher(name);
+        if (!matcher.matches() || !matcher.group(2).equals(PhotoType.JPEG.extension)) {
+            return Optional.empty();
+        }
+        String sha256 = matcher.group(1);
+        Path thumbnail = thumbnailPath(sha256);
+        if (Files.exists(thumbnail)) {
+            return Optional.of(new StoredFile(thumbnail, PhotoType.JPEG, sha256));
+        }
+        for (PhotoType type : PhotoType.values()) {
+            Path photo = photoPath(sha256, type);
+            if (Files.exists(photo)) {
+                scheduleThumbnail(sha256, photo);
+                return Optional.of(new StoredFile(photo, type, sha256));
+            }
+        }
+        return Optional.empty();
+    }
+    
+    public boolean isThumbnail(StoredFile file) {
+        return file.path().startsWith(thumbnailDir);
+    }
+    
+    private void scheduleThumbnail(String sha256, Path photo) {
+        if (!pendingThumbnails.add(sha256)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    writeThumbnail(photo, thumbnailPath(sha256));
+                } catch (Exception e) {
+                    logger.warn("Could not draw the thumbnail of photo {}: {}", photo.getFileName(), e.getMessage());
+                } finally {
+                    pendingThumbnails.remove(sha256);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingThumbnails.remove(sha256);
+            meterRegistry.counter("photo.thumbnails.deferred").increment();
+        }
+    }
+    
+    private void writeThumbnail(Path photo, Path thumbnail) throws IOException {
+        BufferedImage decoded;
+        try (ImageInputStream in = ImageIO.createImageInputStream(photo.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("no image reader for the file");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Decodes every n-th pixel of every n-th row, so a 12 megapixel photo is never held at full size
+                int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(decoded.getWidth(), decoded.getHeight()));
+        int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(decoded, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        
+        Files.createDirectories(thumbnail.getParent());
+        Path incoming = Files.createTempFile(incomingDir, "thumbnail-", ".part");
+        try {
+            if (!ImageIO.write(scaled, "jpg", incoming.toFile())) {
+                throw new IOException("no JPEG writer");
+            }
+            Files.move(incoming, thumbnail, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+    
+    private Path photoPath(String sha256, PhotoType type) {
+        return photoDir.resolve(sha256.substring(0, 2)).resolve(sha256 + "." + type.extension);
+    }
+    
+    private Path thumbnailPath(String sha256) {
+        return thumbnailDir.resolve(sha256.substring(0, 2)).resolve(sha256 + ".jpg");
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdown();
+    }
+}
\ No newline at end of file
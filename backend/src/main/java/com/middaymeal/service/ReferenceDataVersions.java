@@ -0,0 +1,122 @@
+package com.middaymeal.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Versions of the reference data lists, for answering conditional GETs with 304 Not Modified. A table's
+ * version is its row count and latest updated_at, read with one aggregate query and kept in memory until
+ * a write through the services changes the table, or for at most max-age, which bounds how long a write
+ * made on another instance (or in SQL) goes unnoticed.
+ */
+@Service
+public class ReferenceDataVersions {
+    
+    public enum ReferenceData {
+        SCHOOLS("schools"), MENUS("menus"), FOOD_ITEMS("food_items"), USERS("users");
+        
+        private final String table;
+        
+        ReferenceData(String table) {
+            this.table = table;
+        }
+    }
+    
+    /**
+     * The version of one or more tables: eTag for If-None-Match, lastModified (epoch millis, -1 when the
+     * tables are empty) for If-Modified-Since. The ETag is weak, as one version is served as several
+     * representations.
+     */
+    public record Version(String tag, long lastModified) {
+        
+        public String eTag() {
+            return "W/\"" + tag + "\"";
+        }
+        
+        // For lists that also depend on something other than the tables, such as the current month
+        public Version qualifiedBy(Object qualifier) {
+            return new Version(tag + "-" + qualifier, lastModified);
+        }
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxAgeMillis;
+    private final Map<ReferenceData, Entry> entries = new EnumMap<>(ReferenceData.class);
+    
+    @Autowired
+    public ReferenceDataVersions(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.reference-versions.max-age:PT30S}") Duration maxAge) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAgeMillis = maxAge.toMillis();
+        for (ReferenceData data : ReferenceData.values()) {
+            entries.put(data, new Entry());
+        }
+    }
+    
+    /**
+     * The combined version of the given tables, for a list that reads all of them.
+     */
+    public Version get(ReferenceData... data) {
+        Version[] versions = Arrays.stream(data).map(this::versionOf).toArray(Version[]::new);
+        if (versions.length == 1) {
+            return versions[0];
+        }
+        return new Version(Arrays.stream(versions).map(Version::tag).collect(Collectors.joining(".")),
+                Arrays.stream(versions).mapToLong(Version::lastModified).max().orElse(-1));
+    }
+    
+    private Version versionOf(ReferenceData data) {
+        Entry entry = entries.get(data);
+        Cached cached = entry.cached;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.readAt() < maxAgeMillis) {
+            return cached.version();
+        }
+        long generation = entry.generation.get();
+        Version version = jdbcTemplate.queryForObject("SELECT COUNT(*), MAX(updated_at) FROM " + data.table,
+                (rs, rowNum) -> {
+                    Timestamp latest = rs.getTimestamp(2);
+                    long lastModified = latest != null ? latest.getTime() : -1;
+                    return new Version(data.table + "-" + rs.getLong(1) + "-" + lastModified, lastModified);
+                });
+        // Not kept when the table changed while it was read: the read may have missed the change
+        synchronized (entry) {
+            if (entry.generation.get() == generation) {
+                entry.cached = new Cached(version, now);
+            }
+        }
+        return version;
+    }
+    
+    /**
+     * Called by the write paths; the version is read again once the transaction is over (commit or
+     * rollback), so a read made before the commit is not kept.
+     */
+    public void changed(ReferenceData data) {
+        Entry entry = entries.get(data);
+        Runnable invalidation = () -> {
+            synchronized (entry) {
+                entry.generation.incrementAndGet();
+                entry.cached = null;
+            }
+        };
+        TransactionCallbacks.afterCompletion(invalidation);
+    }
+    
+    private static final class Entry {
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Cached cached;
+    }
+    
+    private record Cached(Version version, long readAt) {}
+}
\ No newline at end of file
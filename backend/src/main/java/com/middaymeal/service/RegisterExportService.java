@@ -0,0 +1,214 @@
+package com.middaymeal.service;
+
+import com.middaymeal.entity.MealRecord;
+import com.middaymeal.entity.Menu;
+import com.middaymeal.entity.School;
+import com.middaymeal.repository.MealRecordRepository;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.DeferredSXSSFSheet;
+import org.apache.poi.xssf.streaming.DeferredSXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class RegisterExportService {
+    
+    // Rows kept in memory before they are written out; the rest of the month never sits on the heap
+    private static final int ROW_WINDOW = 100;
+    
+    // Title row, then the column header row
+    private static final int FIRST_RECORD_ROW = 2;
+    
+    private static final String[] COLUMNS = {
+            "Sr. No.", "School Code", "School Name", "City", "Date", "Day", "Menu",
+            "Enrolled", "Students Present", "Meals Served", "Food Cost", "Cooking Cost",
+            "Teacher In Charge", "Meal Quality", "Remarks"
+    };
+    
+    private static final int[] COLUMN_WIDTHS = {
+            8, 14, 32, 16, 12, 12, 32, 10, 12, 12, 12, 12, 24, 14, 32
+    };
+    
+    private final MealRecordRepository mealRecordRepository;
+    private final EntityManager entityManager;
+    
+    @Autowired
+    public RegisterExportService(MealRecordRepository mealRecordRepository, EntityManager entityManager) {
+        this.mealRecordRepository = mealRecordRepository;
+        this.entityManager = entityManager;
+    }
+    
+    public void writeSchoolRegister(Long schoolId, YearMonth month, String title, OutputStream out) throws IOException {
+        writeRegister(month, title, out,
+                () -> mealRecordRepository.streamRegisterForSchool(schoolId, month.atDay(1), month.atEndOfMonth()));
+    }
+    
+    public void writeRegionRegister(String state, String city, YearMonth month, String title, OutputStream out) throws IOException {
+        writeRegister(month, title, out,
+                () -> mealRecordRepository.streamRegisterForRegion(state, city, month.atDay(1), month.atEndOfMonth()));
+    }
+    
+    // The register's title row, also the name it is downloaded as
+    public static String registerTitle(YearMonth month, String scope) {
+        String monthName = month.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase(Locale.ENGLISH);
+        return "MDM " + monthName + " " + month.getYear() + " " + scope.toUpperCase(Locale.ENGLISH);
+    }
+    
+    private void writeRegister(YearMonth month, String title, OutputStream out,
+                               Supplier<Stream<MealRecord>> query) throws IOException {
+        DeferredSXSSFWorkbook workbook = new DeferredSXSSFWorkbook(ROW_WINDOW);
+        try {
+            RegisterStyles styles = new RegisterStyles(workbook);
+            DeferredSXSSFSheet sheet = workbook.createSheet(
+                    month.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + month.getYear());
+            for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
+            sheet.createFreezePane(0, FIRST_RECORD_ROW);
+            
+            // Rows are generated while the workbook is being written, so the response starts
+            // going out as soon as the first window of rows is flushed
+            sheet.setRowGenerator(target -> {
+                try (Stream<MealRecord> records = query.get()) {
+                    writeRows(target, styles, title, records);
+                }
+            });
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    private void writeRows(SXSSFSheet sheet, RegisterStyles styles, String title, Stream<MealRecord> records) {
+        Row titleRow = sheet.createRow(0);
+        setString(titleRow, 0, title, styles.header);
+        
+        Row headerRow = sheet.createRow(1);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            setString(headerRow, i, COLUMNS[i], styles.header);
+        }
+        
+        RegisterTotals totals = new RegisterTotals();
+        records.forEach(record -> {
+            writeRecord(sheet.createRow(FIRST_RECORD_ROW + totals.count), totals.count + 1, record, styles);
+            totals.add(record);
+            // Detach each row so the persistence context stays flat for the whole month
+            entityManager.detach(record);
+        });
+        
+        Row totalRow = sheet.createRow(FIRST_RECORD_ROW + totals.count);
+        setString(totalRow, 0, "TOTAL", styles.header);
+        totalRow.createCell(8).setCellValue(totals.studentsPresent);
+        totalRow.createCell(9).setCellValue(totals.mealsServed);
+        setMoney(totalRow, 10, totals.foodCost, styles.money);
+        setMoney(totalRow, 11, totals.cookingCost, styles.money);
+    }
+    
+    private void writeRecord(Row row, int serial, MealRecord record, RegisterStyles styles) {
+        School school = record.getSchool();
+        Menu menu = record.getMenu();
+        LocalDate date = record.getDate();
+        
+        row.createCell(0).setCellValue(serial);
+        setString(row, 1, school.getCode(), null);
+        setString(row, 2, school.getName(), null);
+        setString(row, 3, school.getCity(), null);
+        Cell dateCell = row.createCell(4);
+        dateCell.setCellValue(date);
+        dateCell.setCellStyle(styles.date);
+        setString(row, 5, date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH), null);
+        setString(row, 6, menu.getMenuDescription() != null ? menu.getMenuDescription() : menu.getMealType().name(), null);
+        if (school.getTotalStudents() != null) {
+            row.createCell(7).setCellValue(school.getTotalStudents());
+        }
+        row.createCell(8).setCellValue(record.getStudentsPresent());
+        row.createCell(9).setCellValue(record.getMealsServed());
+        setMoney(row, 10, record.getTotalCost(), styles.money);
+        setMoney(row, 11, record.getCookingCost(), styles.money);
+        setString(row, 12, record.getTeacherInCharge(), null);
+        setString(row, 13, record.getMealQuality() != null ? record.getMealQuality().name() : null, null);
+        setString(row, 14, record.getRemarks(), null);
+    }
+    
+    private void setString(Row row, int column, String value, CellStyle style) {
+        if (value == null) {
+            return;
+        }
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+    }
+    
+    private void setMoney(Row row, int column, BigDecimal value, CellStyle style) {
+        if (value == null) {
+            return;
+        }
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value.doubleValue());
+        cell.setCellStyle(style);
+    }
+    
+    // Styles live in styles.xml, which is written before any sheet data, so they are created up front
+    private static class RegisterStyles {
+        
+        private final CellStyle header;
+        private final CellStyle date;
+        private final CellStyle money;
+        
+        RegisterStyles(DeferredSXSSFWorkbook workbook) {
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(bold);
+            
+            short dateFormat = workbook.getCreationHelper().createDataFormat().getFormat("dd-mm-yyyy");
+            date = workbook.createCellStyle();
+            date.setDataFormat(dateFormat);
+            
+            short moneyFormat = workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00");
+            money = workbook.createCellStyle();
+            money.setDataFormat(moneyFormat);
+        }
+    }
+    
+    private static class RegisterTotals {
+        
+        private int count;
+        private long studentsPresent;
+        private long mealsServed;
+        private BigDecimal foodCost = BigDecimal.ZERO;
+        private BigDecimal cookingCost = BigDecimal.ZERO;
+        
+        void add(MealRecord record) {
+            count++;
+            studentsPresent += record.getStudentsPresent();
+            mealsServed += record.getMealsServed();
+            if (record.getTotalCost() != null) {
+                foodCost = foodCost.add(record.getTotalCost());
+            }
+            if (record.getCookingCost() != null) {
+                cookingCost = cookingCost.add(record.getCookingCost());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,447 @@
+package com.middaymeal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.middaymeal.dto.ReportJob;
+import com.middaymeal.entity.School;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Generates reports in the background, so a district's monthly register is not built inside a request
+ * thread. A submitted report is queued for a small pool and written to a file under app.reports.dir,
+ * which the client downloads once the job is done. Reports are cached by type, parameters and the
+ * version of the data they read: submitting a report whose data has not changed since it was last
+ * generated answers the finished job (or the one still running) instead of generating it again. Once
+ * the pool's queue is full further reports are refused with {@link SaturatedException}. Jobs and their
+ * files are kept for app.reports.retention after they finish; they live in this instance's memory, so
+ * a client polls the instance it submitted to.
+ */
+@Service
+public class ReportJobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    
+    // Records of the month with their school and menu; count and latest change notice inserts, edits and deletes
+    private static final String REGISTER_VERSION =
+            "SELECT COUNT(*), MAX(GREATEST(mr.updated_at, s.updated_at, m.updated_at)) FROM meal_records mr " +
+            "JOIN schools s ON s.id = mr.school_id JOIN menus m ON m.id = mr.menu_id WHERE mr.date BETWEEN ? AND ?";
+    
+    private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f-]{36}\\.(json|xlsx|part)");
+    
+    public enum Format {
+        JSON("json", "application/json"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        
+        private final String extension;
+        private final String contentType;
+        
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+        
+        public String contentType() {
+            return contentType;
+        }
+    }
+    
+    public enum ReportType {
+        MONTHLY_SUMMARY("monthly-summary", Format.JSON, List.of("year", "month"), List.of()),
+        FOOD_CONSUMPTION("food-consumption", Format.JSON, List.of(), List.of()),
+        SCHOOL_REGISTER("school-register", Format.XLSX, List.of("schoolId", "year", "month"), List.of()),
+        REGION_REGISTER("region-register", Format.XLSX, List.of("year", "month"), List.of("state", "city"));
+        
+        private final String slug;
+        private final Format format;
+        private final List<String> required;
+        private final List<String> optional;
+        
+        ReportType(String slug, Format format, List<String> required, List<String> optional) {
+            this.slug = slug;
+            this.format = format;
+            this.required = required;
+            this.optional = optional;
+        }
+        
+        public static Optional<ReportType> of(String slug) {
+            return Arrays.stream(values()).filter(type -> type.slug.equals(slug)).findFirst();
+        }
+    }
+    
+    public record ReportFile(Path path, Format format, String fileName) {}
+    
+    private static final class Job {
+        
+        private final String id = UUID.randomUUID().toString();
+        private final ReportType type;
+        private final SortedMap<String, String> params;
+        // Null when the data's version is unknown and the report is not cached
+        private final String cacheKey;
+        private final Instant submittedAt = Instant.now();
+        private volatile ReportJob.Status status = ReportJob.Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Path file;
+        private volatile String fileName;
+        private volatile String error;
+        
+        private Job(ReportType type, SortedMap<String, String> params, String cacheKey) {
+            this.type = type;
+            this.params = params;
+            this.cacheKey = cacheKey;
+        }
+        
+        private ReportJob toReportJob() {
+            String downloadUrl = status == ReportJob.Status.DONE ? "/reports/jobs/" + id + "/file" : null;
+            return new ReportJob(id, type.slug, params, status, submittedAt, startedAt, finishedAt, downloadUrl, error);
+        }
+    }
+    
+    private final ReportingViewService reportingViewService;
+    private final RegisterExportService registerExportService;
+    private final SchoolService schoolService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Path reportDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // The latest job of each cache key, finished or not
+    private final Map<String, Job> jobsByCacheKey = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public ReportJobService(ReportingViewService reportingViewService, RegisterExportService registerExportService,
+                            SchoolService schoolService, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                            @Value("${app.reports.dir:reports/}") String reportDir,
+                            @Value("${app.reports.threads:2}") int threads,
+                            @Value("${app.reports.queue-capacity:50}") int queueCapacity,
+                            @Value("${app.reports.retention:PT1H}") Duration retention,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.reportingViewService = reportingViewService;
+        this.registerExportService = registerExportService;
+        this.schoolService = schoolService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.reportDir = Path.of(reportDir).toAbsolutePath();
+        this.retention = retention;
+        Files.createDirectories(this.reportDir);
+        deleteOrphanedFiles();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "report-jobs-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "reportJobs");
+        logger.info("Writing reports to {}; report pool: {} threads, queue of {}", this.reportDir, threads, queueCapacity);
+    }
+    
+    /**
+     * Queues a report, or answers the job that generated (or is generating) it from the same data.
+     * Throws IllegalArgumentException for missing or invalid parameters, IllegalStateException when the
+     * reporting views it reads are not set up, and {@link SaturatedException} when the queue is full.
+     */
+    public ReportJob submit(ReportType type, Map<String, String> requestParams) {
+        SortedMap<String, String> params = canonicalParams(type, requestParams);
+        // Read before the report, so a report is never filed under a version newer than its data
+        String cacheKey = dataVersion(type, params)
+                .map(version -> type.slug + params + "@" + version)
+                .orElse(null);
+        Job created = new Job(type, Collections.unmodifiableSortedMap(params), cacheKey);
+        Job job = cacheKey == null ? created
+                : jobsByCacheKey.compute(cacheKey, (key, existing) -> reusable(existing) ? existing : created);
+        if (job != created) {
+            meterRegistry.counter("report.jobs.requests", "type", type.slug,
+                    "result", job.status == ReportJob.Status.DONE ? "cached" : "joined").increment();
+            return job.toReportJob();
+        }
+        jobs.put(created.id, created);
+        try {
+            executor.execute(() -> run(created));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(created.id);
+            if (cacheKey != null) {
+                jobsByCacheKey.remove(cacheKey, created);
+            }
+            // Anyone who joined it meanwhile sees it fail rather than wait forever
+            created.error = "Refused, too many reports were being generated";
+            created.status = ReportJob.Status.FAILED;
+            meterRegistry.counter("report.jobs.requests", "type", type.slug, "result", "rejected").increment();
+            throw new SaturatedException("Too many reports are being generated, please retry shortly", 5);
+        }
+        meterRegistry.counter("report.jobs.requests", "type", type.slug, "result", "queued").increment();
+        return created.toReportJob();
+    }
+    
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toReportJob);
+    }
+    
+    // Empty until the job is done
+    public Optional<ReportFile> findFile(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.status != ReportJob.Status.DONE || !Files.exists(job.file)) {
+            return Optional.empty();
+        }
+        return Optional.of(new ReportFile(job.file, job.type.format, job.fileName));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reports.purge-interval:PT5M}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            if (job.cacheKey != null) {
+                jobsByCacheKey.remove(job.cacheKey, job);
+            }
+            if (job.file != null) {
+                try {
+                    Files.deleteIfExists(job.file);
+                } catch (IOException e) {
+                    logger.warn("Could not delete report {}: {}", job.file, e.getMessage());
+                }
+            }
+            return true;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private void run(Job job) {
+        job.startedAt = Instant.now();
+        job.status = ReportJob.Status.RUNNING;
+        Timer.builder("report.jobs.wait")
+                .description("Time a report waited in the queue before it was generated")
+                .tag("type", job.type.slug)
+                .register(meterRegistry)
+                .record(Duration.between(job.submittedAt, job.startedAt));
+        Path part = reportDir.resolve(job.id + ".part");
+        Path file = reportDir.resolve(job.id + "." + job.type.format.extension);
+        long start = System.nanoTime();
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                job.fileName = write(job.type, job.params, out) + "." + job.type.format.extension;
+            }
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.status = ReportJob.Status.DONE;
+            reportTimer(job.type, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Generated {} {} in {} ms", job.type.slug, job.params, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            reportTimer(job.type, "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (job.cacheKey != null) {
+                jobsByCacheKey.remove(job.cacheKey, job);
+            }
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+                // Removed with the other leftovers at the next start
+            }
+            job.error = e instanceof IllegalArgumentException || e instanceof IllegalStateException
+                    ? e.getMessage() : "Report could not be generated";
+            job.status = ReportJob.Status.FAILED;
+            logger.warn("Generating {} {} failed: {}", job.type.slug, job.params, e.toString());
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+    
+    // Writes the report and answers the name to download it as, without the extension
+    private String write(ReportType type, Map<String, String> params, OutputStream out) throws IOException {
+        return switch (type) {
+            case MONTHLY_SUMMARY -> {
+                YearMonth month = yearMonth(params);
+                objectMapper.writeValue(out, reportingViewService.getMonthlySummary(month));
+                yield type.slug + "-" + month;
+            }
+            case FOOD_CONSUMPTION -> {
+                objectMapper.writeValue(out, reportingViewService.getFoodConsumption());
+                yield type.slug;
+            }
+            case SCHOOL_REGISTER -> {
+                Long schoolId = Long.valueOf(params.get("schoolId"));
+                School school = schoolService.getSchoolById(schoolId)
+                        .orElseThrow(() -> new IllegalArgumentException("School " + schoolId + " not found"));
+                YearMonth month = yearMonth(params);
+                String title = RegisterExportService.registerTitle(month, school.getName());
+                registerExportService.writeSchoolRegister(schoolId, month, title, out);
+                yield title;
+            }
+            case REGION_REGISTER -> {
+                String state = params.get("state");
+                String city = params.get("city");
+                YearMonth month = yearMonth(params);
+                String title = RegisterExportService.registerTitle(month,
+                        city != null ? city : state != null ? state : "ALL SCHOOLS");
+                registerExportService.writeRegionRegister(state, city, month, title, out);
+                yield title;
+            }
+        };
+    }
+    
+    /**
+     * The version of the data a report reads, empty when it cannot be told and the report is always
+     * generated afresh. A view's version is this instance's last refresh of it, while no changes are
+     * waiting; a register's is the count and latest change of the month's records, schools and menus.
+     */
+    private Optional<String> dataVersion(ReportType type, Map<String, String> params) {
+        return switch (type) {
+            case MONTHLY_SUMMARY -> reportingViewService.contentVersion(ReportingViewService.View.MONTHLY_MEAL_SUMMARY);
+            case FOOD_CONSUMPTION -> reportingViewService.contentVersion(ReportingViewService.View.FOOD_CONSUMPTION_SUMMARY);
+            case SCHOOL_REGISTER -> {
+                YearMonth month = yearMonth(params);
+                Long schoolId = Long.valueOf(params.get("schoolId"));
+                String records = registerVersion(REGISTER_VERSION + " AND mr.school_id = ?",
+                        month.atDay(1), month.atEndOfMonth(), schoolId);
+                // The school's name titles the register even in a month without records
+                Timestamp schoolChanged = jdbcTemplate.queryForObject(
+                        "SELECT updated_at FROM schools WHERE id = ?", Timestamp.class, schoolId);
+                yield Optional.of(records + "-" + (schoolChanged != null ? schoolChanged.getTime() : -1));
+            }
+            case REGION_REGISTER -> {
+                YearMonth month = yearMonth(params);
+                StringBuilder sql = new StringBuilder(REGISTER_VERSION);
+                List<Object> args = new ArrayList<>(List.of(month.atDay(1), month.atEndOfMonth()));
+                if (params.containsKey("state")) {
+                    sql.append(" AND s.state = ?");
+                    args.add(params.get("state"));
+                }
+                if (params.containsKey("city")) {
+                    sql.append(" AND s.city = ?");
+                    args.add(params.get("city"));
+                }
+                yield Optional.of(registerVersion(sql.toString(), args.toArray()));
+            }
+        };
+    }
+    
+    private String registerVersion(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            Timestamp latest = rs.getTimestamp(2);
+            return rs.getLong(1) + "-" + (latest != null ? latest.getTime() : -1);
+        }, args);
+    }
+    
+    // Only the type's own parameters, validated and in one order, so equal requests share a cache key
+    private SortedMap<String, String> canonicalParams(ReportType type, Map<String, String> requestParams) {
+        SortedMap<String, String> params = new TreeMap<>();
+        for (String name : type.required) {
+            String value = requestParams.get(name);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException(name + " is required");
+            }
+            params.put(name, value.trim());
+        }
+        for (String name : type.optional) {
+            String value = requestParams.get(name);
+            if (value != null && !value.isBlank()) {
+                params.put(name, value.trim());
+            }
+        }
+        if (params.containsKey("year")) {
+            YearMonth month = yearMonth(params);
+            params.put("year", String.valueOf(month.getYear()));
+            params.put("month", String.valueOf(month.getMonthValue()));
+        }
+        if (params.containsKey("schoolId")) {
+            Long schoolId;
+            try {
+                schoolId = Long.valueOf(params.get("schoolId"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid schoolId: " + params.get("schoolId"));
+            }
+            if (schoolService.getSchoolById(schoolId).isEmpty()) {
+                throw new IllegalArgumentException("School " + schoolId + " not found");
+            }
+            params.put("schoolId", schoolId.toString());
+        }
+        return params;
+    }
+    
+    private static YearMonth yearMonth(Map<String, String> params) {
+        try {
+            return YearMonth.of(Integer.parseInt(params.get("year")), Integer.parseInt(params.get("month")));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid year or month: " + params.get("year") + "-" + params.get("month"));
+        }
+    }
+    
+    // A failed job is generated again; a finished one only while its file is still there
+    private static boolean reusable(Job job) {
+        if (job == null) {
+            return false;
+        }
+        return switch (job.status) {
+            case QUEUED, RUNNING -> true;
+            case DONE -> Files.exists(job.file);
+            case FAILED -> false;
+        };
+    }
+    
+    private Timer reportTimer(ReportType type, String result) {
+        return Timer.builder("report.jobs")
+                .description("Time taken to generate a report")
+                .tag("type", type.slug)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    // Jobs are kept in memory, so the files of a previous run can no longer be asked for
+    private void deleteOrphanedFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(reportDir)) {
+            for (Path file : files) {
+                if (JOB_FILE.matcher(file.getFileName().toString()).matches()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.ReportView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the reporting materialized views from reporting_views.sql fresh and reads them. Writes to meal
+ * records, menus, schools and food items mark the views built on them as stale once their transaction
+ * commits. A scheduled check refreshes a stale view CONCURRENTLY, so reports reading it are never blocked,
+ * when writes have been quiet for the quiet period, or after the maximum delay when they never stop; a
+ * burst of writes such as a workbook import therefore costs one refresh. Writes made through another
+ * instance reach the views at that instance's next refresh. Views missing from the database are skipped.
+ */
+@Service
+public class ReportingViewService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportingViewService.class);
+    
+    private static final String MONTHLY_SUMMARY =
+            "SELECT school_id, school_name, school_code, month, total_meal_days, total_students_present, " +
+            "total_meals_served, avg_daily_attendance FROM monthly_meal_summary WHERE month = ? ORDER BY school_name";
+    
+    private static final String FOOD_CONSUMPTION =
+            "SELECT food_item_id, food_item_name, food_item_name_marathi, category, unit, total_quantity_consumed, " +
+            "days_served, avg_quantity_per_student FROM food_consumption_summary ORDER BY total_quantity_consumed DESC";
+    
+    // The tables a view reads; the views show school names and codes, and food item names and categories
+    private enum Source { MEAL_RECORDS, MENUS, SCHOOLS, FOOD_ITEMS }
+    
+    public enum View {
+        MONTHLY_MEAL_SUMMARY("monthly_meal_summary", Source.MEAL_RECORDS, Source.SCHOOLS),
+        FOOD_CONSUMPTION_SUMMARY("food_consumption_summary", Source.MEAL_RECORDS, Source.MENUS, Source.FOOD_ITEMS);
+        
+        private final String relation;
+        private final Set<Source> sources;
+        
+        View(String relation, Source... sources) {
+            this.relation = relation;
+            this.sources = Set.of(sources);
+        }
+    }
+    
+    private static final class State {
+        
+        private volatile boolean present;
+        private volatile boolean populated;
+        // Epoch millis of the first change not yet refreshed into the view, 0 when there is none
+        private final AtomicLong staleSince = new AtomicLong();
+        private volatile long lastChange;
+        // staleSince of the refresh in progress, which covers those changes only once it finishes
+        private volatile long refreshingSince;
+        private volatile Instant refreshedAt;
+        private Timer refreshes;
+        private Timer failedRefreshes;
+        
+        long oldestPendingChange() {
+            long stale = staleSince.get();
+            long refreshing = refreshingSince;
+            if (stale == 0 || refreshing == 0) {
+                return Math.max(stale, refreshing);
+            }
+            return Math.min(stale, refreshing);
+        }
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration quietPeriod;
+    private final Duration maxDelay;
+    private final Map<View, State> states = new EnumMap<>(View.class);
+    
+    @Autowired
+    public ReportingViewService(JdbcTemplate jdbcTemplate,
+                                @Value("${app.reporting-views.quiet-period:PT30S}") Duration quietPeriod,
+                                @Value("${app.reporting-views.max-delay:PT5M}") Duration maxDelay,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.quietPeriod = quietPeriod;
+        this.maxDelay = maxDelay;
+        for (View view : View.values()) {
+            State state = new State();
+            state.refreshes = refreshTimer(meterRegistry, view, "success");
+            state.failedRefreshes = refreshTimer(meterRegistry, view, "failure");
+            Gauge.builder("reporting.view.staleness", state, ReportingViewService::stalenessSeconds)
+                    .description("Seconds since the oldest change not yet refreshed into the view, 0 when it is current")
+                    .tag("view", view.relation)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            states.put(view, state);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void detect() {
+        Map<String, Boolean> matviews = new HashMap<>();
+        jdbcTemplate.query("SELECT matviewname, ispopulated FROM pg_matviews WHERE schemaname = current_schema()",
+                rs -> { matviews.put(rs.getString(1), rs.getBoolean(2)); });
+        Set<String> missing = new HashSet<>();
+        states.forEach((view, state) -> {
+            state.present = matviews.containsKey(view.relation);
+            state.populated = Boolean.TRUE.equals(matviews.get(view.relation));
+            if (state.present) {
+                // Whatever changed while this instance was down is caught up by one refresh
+                markStale(state);
+            } else {
+                missing.add(view.relation);
+            }
+        });
+        if (!missing.isEmpty()) {
+            logger.warn("Reporting views {} are not materialized views, apply database/reporting_views.sql", missing);
+        }
+    }
+    
+    public void mealRecordsChanged() {
+        changed(Source.MEAL_RECORDS);
+    }
+    
+    public void menusChanged() {
+        changed(Source.MENUS);
+    }
+    
+    public void schoolsChanged() {
+        changed(Source.SCHOOLS);
+    }
+    
+    public void foodItemsChanged() {
+        changed(Source.FOOD_ITEMS);
+    }
+    
+    private void changed(Source source) {
+        TransactionCallbacks.afterCommit(() -> states.forEach((view, state) -> {
+            if (view.sources.contains(source)) {
+                markStale(state);
+            }
+        }));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reporting-views.check-interval:PT5S}")
+    public void refreshStaleViews() {
+        long now = System.currentTimeMillis();
+        states.forEach((view, state) -> {
+            long staleSince = state.staleSince.get();
+            if (!state.present || staleSince == 0) {
+                return;
+            }
+            boolean quiet = now - state.lastChange >= quietPeriod.toMillis();
+            boolean overdue = now - staleSince >= maxDelay.toMillis();
+            if (quiet || overdue) {
+                refresh(view, state);
+            }
+        });
+    }
+    
+    public ReportView<ReportView.MonthlySummary> getMonthlySummary(YearMonth month) {
+        State state = requirePresent(View.MONTHLY_MEAL_SUMMARY);
+        List<ReportView.MonthlySummary> rows = jdbcTemplate.query(MONTHLY_SUMMARY, (rs, rowNum) ->
+                new ReportView.MonthlySummary(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getObject(4, LocalDate.class), rs.getLong(5), rs.getLong(6), rs.getLong(7),
+                        scale(rs.getBigDecimal(8), 2)), month.atDay(1));
+        return new ReportView<>(rows, state.refreshedAt, state.oldestPendingChange() != 0);
+    }
+    
+    public ReportView<ReportView.FoodConsumption> getFoodConsumption() {
+        State state = requirePresent(View.FOOD_CONSUMPTION_SUMMARY);
+        List<ReportView.FoodConsumption> rows = jdbcTemplate.query(FOOD_CONSUMPTION, (rs, rowNum) ->
+                new ReportView.FoodConsumption(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), scale(rs.getBigDecimal(6), 3), rs.getLong(7), scale(rs.getBigDecimal(8), 3)));
+        return new ReportView<>(rows, state.refreshedAt, state.oldestPendingChange() != 0);
+    }
+    
+    /**
+     * A version of the view's contents for caching what is read from it: this instance's last refresh of
+     * it, or empty while changes are waiting to be refreshed in (or it has not been refreshed since start).
+     */
+    public Optional<String> contentVersion(View view) {
+        State state = requirePresent(view);
+        if (state.oldestPendingChange() != 0) {
+            return Optional.empty();
+        }
+        Instant refreshedAt = state.refreshedAt;
+        return refreshedAt != null ? Optional.of(view.relation + "-" + refreshedAt.toEpochMilli()) : Optional.empty();
+    }
+    
+    // One refresh at a time, on the scheduler thread
+    private synchronized void refresh(View view, State state) {
+        long staleSince = state.staleSince.getAndSet(0);
+        state.refreshingSince = staleSince;
+        // Until a view has been filled once it cannot be refreshed concurrently
+        String sql = "REFRESH MATERIALIZED VIEW " + (state.populated ? "CONCURRENTLY " : "") + view.relation;
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.execute(sql);
+            state.refreshes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            state.populated = true;
+            state.refreshedAt = Instant.now();
+            logger.debug("Refreshed {} in {} ms", view.relation, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            state.failedRefreshes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Still stale from the same moment; retried at the next check
+            if (staleSince != 0) {
+                state.staleSince.accumulateAndGet(staleSince, (current, failed) -> current == 0 ? failed : Math.min(current, failed));
+            }
+            logger.warn("Refreshing {} failed: {}", view.relation, e.getMessage());
+        } finally {
+            state.refreshingSince = 0;
+        }
+    }
+    
+    private State requirePresent(View view) {
+        State state = states.get(view);
+        if (!state.present) {
+            throw new IllegalStateException(view.relation + " is not set up, apply database/reporting_views.sql");
+        }
+        return state;
+    }
+    
+    private static void markStale(State state) {
+        long now = System.currentTimeMillis();
+        state.lastChange = now;
+        state.staleSince.compareAndSet(0, now);
+    }
+    
+    private static double stalenessSeconds(State state) {
+        long oldest = state.oldestPendingChange();
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+    
+    private static Timer refreshTimer(MeterRegistry meterRegistry, View view, String result) {
+        return Timer.builder("reporting.view.refresh")
+                .description("Time taken to refresh a reporting materialized view")
+                .tag("view", view.relation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    private static BigDecimal scale(BigDecimal value, int scale) {
+        return value != null ? value.setScale(scale, RoundingMode.HALF_UP) : null;
+    }
+}
\ No newline at end of file
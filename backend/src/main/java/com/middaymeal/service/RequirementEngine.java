@@ -0,0 +1,103 @@
+package com.middaymeal.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Food requirement arithmetic over primitive arrays. Templates, food items and schools are addressed
+// by index; quantities are longs in thousandths of the food item's unit (grams of a KG item), so every
+// sum is exact. Schools are split into chunks computed in parallel on the common fork/join pool.
+class RequirementEngine {
+    
+    // Below this many schools a chunk is computed directly rather than split further
+    private static final int SCHOOLS_PER_TASK = 256;
+    
+    private final int foodItemCount;
+    // Per template: the food items it uses and their per-student quantities for grades 1-5 and 6-8
+    private final int[][] items;
+    private final long[][] perStudent1to5;
+    private final long[][] perStudent6to8;
+    
+    record Result(long[][] schoolTotals, long[][] templateTotals) {}
+    
+    RequirementEngine(int foodItemCount, int[][] items, long[][] perStudent1to5, long[][] perStudent6to8) {
+        this.foodItemCount = foodItemCount;
+        this.items = items;
+        this.perStudent1to5 = perStudent1to5;
+        this.perStudent6to8 = perStudent6to8;
+    }
+    
+    /**
+     * {@code servings[t]} is how many days of the period template t is served. Returns, per school,
+     * its total for the period by food item, and per template, what one day of it takes across all
+     * the schools (which is the period's total for each day that template is served).
+     */
+    Result compute(int[] servings, int[] grade1to5, int[] grade6to8) {
+        long[][] schoolTotals = new long[grade1to5.length][];
+        long[][] templateTotals = ForkJoinPool.commonPool()
+                .invoke(new Chunk(servings, grade1to5, grade6to8, schoolTotals, 0, grade1to5.length));
+        return new Result(schoolTotals, templateTotals);
+    }
+    
+    private class Chunk extends RecursiveTask<long[][]> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] servings;
+        private final int[] grade1to5;
+        private final int[] grade6to8;
+        private final long[][] schoolTotals;
+        private final int from;
+        private final int to;
+        
+        Chunk(int[] servings, int[] grade1to5, int[] grade6to8, long[][] schoolTotals, int from, int to) {
+            this.servings = servings;
+            this.grade1to5 = grade1to5;
+            this.grade6to8 = grade6to8;
+            this.schoolTotals = schoolTotals;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected long[][] compute() {
+            if (to - from > SCHOOLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Chunk left = new Chunk(servings, grade1to5, grade6to8, schoolTotals, from, middle);
+                left.fork();
+                long[][] right = new Chunk(servings, grade1to5, grade6to8, schoolTotals, middle, to).compute();
+                return add(left.join(), right);
+            }
+            // Each school's row is written by this chunk alone; the per-template sums are its own until joined
+            long[][] templateTotals = new long[items.length][foodItemCount];
+            for (int school = from; school < to; school++) {
+                long[] total = new long[foodItemCount];
+                long students1to5 = grade1to5[school];
+                long students6to8 = grade6to8[school];
+                for (int template = 0; template < items.length; template++) {
+                    int days = servings[template];
+                    if (days == 0) {
+                        continue;
+                    }
+                    int[] templateItems = items[template];
+                    long[] oneDayTotals = templateTotals[template];
+                    for (int i = 0; i < templateItems.length; i++) {
+                        long oneDay = perStudent1to5[template][i] * students1to5 + perStudent6to8[template][i] * students6to8;
+                        total[templateItems[i]] += oneDay * days;
+                        oneDayTotals[templateItems[i]] += oneDay;
+                    }
+                }
+                schoolTotals[school] = total;
+            }
+            return templateTotals;
+        }
+    }
+    
+    private static long[][] add(long[][] into, long[][] other) {
+        for (int template = 0; template < into.length; template++) {
+            for (int item = 0; item < into[template].length; item++) {
+                into[template][item] += other[template][item];
+            }
+        }
+        return into;
+    }
+}
\ No newline at end of file
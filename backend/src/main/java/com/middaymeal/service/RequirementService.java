@@ -0,0 +1,227 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.RequirementPlan;
+import com.middaymeal.entity.Menu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans a month's food requirements from the meal templates (template_food_items, grade 1-5 and 6-8
+ * quantities per student, with food_quantities as the norm where a template leaves a grade at zero)
+ * and the schools' enrolment by grade. Everything is read in four queries and handed to
+ * {@link RequirementEngine}, so a district of thousands of schools is planned in one pass instead of
+ * a calculate_menu_quantities call per school and day.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RequirementService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequirementService.class);
+    
+    // Templates with a weekday are the standing weekly calendar; the first one listed for a weekday is served
+    private static final String TEMPLATE_ITEMS =
+            "SELECT t.id, t.template_name, t.day_of_week, tfi.food_item_id, tfi.grade_1_5_quantity, tfi.grade_6_8_quantity " +
+            "FROM meal_templates t JOIN template_food_items tfi ON tfi.template_id = t.id " +
+            "WHERE t.active = true AND t.meal_type = ? AND t.day_of_week IS NOT NULL " +
+            "ORDER BY t.id, tfi.food_item_id";
+    
+    private static final String FOOD_NORMS = "SELECT food_item_id, grade_level, quantity_per_student FROM food_quantities";
+    
+    private static final String FOOD_ITEMS = "SELECT id, name, name_marathi, unit FROM food_items";
+    
+    private static final String SCHOOLS =
+            "SELECT id, name, COALESCE(grade_1_5_count, 0), COALESCE(grade_6_8_count, 0), COALESCE(total_students, 0) " +
+            "FROM schools WHERE active = true AND (?::text IS NULL OR state = ?) AND (?::text IS NULL OR city = ?) " +
+            "AND (?::bigint IS NULL OR id = ?) ORDER BY code";
+    
+    private record FoodItemInfo(Long id, String name, String nameMarathi, String unit) {}
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public RequirementService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public RequirementPlan getMonthlyPlan(YearMonth month, Menu.MealType mealType, String state, String city, Long schoolId) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('template_food_items') IS NOT NULL", Boolean.class))) {
+            throw new IllegalStateException("Meal templates are not set up, apply database/enhanced_meal_schema.sql");
+        }
+        List<String> warnings = new ArrayList<>();
+        
+        // Templates and their items, with food items renumbered 0..n-1 in order of first use
+        Map<Long, BigDecimal[]> norms = new HashMap<>();
+        jdbcTemplate.query(FOOD_NORMS, rs -> {
+            BigDecimal[] byGrade = norms.computeIfAbsent(rs.getLong(1), id -> new BigDecimal[2]);
+            byGrade["1-5".equals(rs.getString(2)) ? 0 : 1] = rs.getBigDecimal(3);
+        });
+        List<Long> templateIds = new ArrayList<>();
+        List<String> templateNames = new ArrayList<>();
+        Map<DayOfWeek, Integer> templateByDay = new EnumMap<>(DayOfWeek.class);
+        Map<Long, Integer> foodItemIndex = new LinkedHashMap<>();
+        List<List<long[]>> templateRows = new ArrayList<>();
+        jdbcTemplate.query(TEMPLATE_ITEMS, rs -> {
+            long templateId = rs.getLong(1);
+            if (templateIds.isEmpty() || templateIds.get(templateIds.size() - 1) != templateId) {
+                templateIds.add(templateId);
+                templateNames.add(rs.getString(2));
+                templateRows.add(new ArrayList<>());
+                templateByDay.putIfAbsent(DayOfWeek.valueOf(rs.getString(3)), templateIds.size() - 1);
+            }
+            long foodItemId = rs.getLong(4);
+            BigDecimal[] norm = norms.getOrDefault(foodItemId, new BigDecimal[2]);
+            templateRows.get(templateRows.size() - 1).add(new long[] {
+                    foodItemIndex.computeIfAbsent(foodItemId, id -> foodItemIndex.size()),
+                    thousandths(rs.getBigDecimal(5), norm[0]),
+                    thousandths(rs.getBigDecimal(6), norm[1])});
+        }, mealType.name());
+        
+        int[][] items = new int[templateRows.size()][];
+        long[][] perStudent1to5 = new long[templateRows.size()][];
+        long[][] perStudent6to8 = new long[templateRows.size()][];
+        for (int t = 0; t < templateRows.size(); t++) {
+            List<long[]> rows = templateRows.get(t);
+            items[t] = new int[rows.size()];
+            perStudent1to5[t] = new long[rows.size()];
+            perStudent6to8[t] = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                items[t][i] = (int) rows.get(i)[0];
+                perStudent1to5[t][i] = rows.get(i)[1];
+                perStudent6to8[t][i] = rows.get(i)[2];
+            }
+        }
+        
+        // The month's calendar: which template each day serves
+        int[] servings = new int[templateIds.size()];
+        int[] dayTemplates = new int[month.lengthOfMonth()];
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            DayOfWeek dayOfWeek = month.atDay(day).getDayOfWeek();
+            Integer template = templateByDay.get(dayOfWeek);
+            dayTemplates[day - 1] = template != null ? template : -1;
+            if (template != null) {
+                servings[template]++;
+            } else if (dayOfWeek != DayOfWeek.SUNDAY && day <= 7) {
+                // The first seven days name each missing weekday once
+                warnings.add("No active " + mealType + " template for " + dayOfWeek + ", those days are not planned");
+            }
+        }
+        
+        // Schools in the region, enrolment into primitive arrays
+        List<Long> schoolIds = new ArrayList<>();
+        List<String> schoolNames = new ArrayList<>();
+        IntList grade1to5 = new IntList();
+        IntList grade6to8 = new IntList();
+        int[] withoutGradeSplit = new int[1];
+        jdbcTemplate.query(SCHOOLS, rs -> {
+            schoolIds.add(rs.getLong(1));
+            schoolNames.add(rs.getString(2));
+            int students1to5 = rs.getInt(3);
+            int students6to8 = rs.getInt(4);
+            if (students1to5 == 0 && students6to8 == 0 && rs.getInt(5) > 0) {
+                students1to5 = rs.getInt(5);
+                withoutGradeSplit[0]++;
+            }
+            grade1to5.add(students1to5);
+            grade6to8.add(students6to8);
+        }, state, state, city, city, schoolId, schoolId);
+        if (withoutGradeSplit[0] > 0) {
+            warnings.add(withoutGradeSplit[0] + " school(s) have no enrolment by grade; their total students are planned at grade 1-5 quantities");
+        }
+        
+        long start = System.nanoTime();
+        RequirementEngine.Result result = new RequirementEngine(foodItemIndex.size(), items, perStudent1to5, perStudent6to8)
+                .compute(servings, grade1to5.toArray(), grade6to8.toArray());
+        logger.info("Planned {} {} for {} schools in {} ms", month, mealType, schoolIds.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        
+        FoodItemInfo[] foodItems = foodItemInfo(foodItemIndex);
+        long[] monthTotals = new long[foodItems.length];
+        List<RequirementPlan.Day> days = new ArrayList<>();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            int template = dayTemplates[day - 1];
+            if (template < 0) {
+                continue;
+            }
+            long[] oneDay = result.templateTotals()[template];
+            for (int item = 0; item < oneDay.length; item++) {
+                monthTotals[item] += oneDay[item];
+            }
+            days.add(new RequirementPlan.Day(month.atDay(day), templateIds.get(template), templateNames.get(template),
+                    quantities(oneDay, foodItems)));
+        }
+        List<RequirementPlan.SchoolRequirement> schools = new ArrayList<>(schoolIds.size());
+        for (int school = 0; school < schoolIds.size(); school++) {
+            schools.add(new RequirementPlan.SchoolRequirement(schoolIds.get(school), schoolNames.get(school),
+                    grade1to5.get(school), grade6to8.get(school), quantities(result.schoolTotals()[school], foodItems)));
+        }
+        return new RequirementPlan(month.getYear(), month.getMonthValue(), mealType, days.size(),
+                quantities(monthTotals, foodItems), days, schools, warnings);
+    }
+    
+    private FoodItemInfo[] foodItemInfo(Map<Long, Integer> foodItemIndex) {
+        FoodItemInfo[] foodItems = new FoodItemInfo[foodItemIndex.size()];
+        jdbcTemplate.query(FOOD_ITEMS, rs -> {
+            Integer index = foodItemIndex.get(rs.getLong(1));
+            if (index != null) {
+                foodItems[index] = new FoodItemInfo(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+            }
+        });
+        return foodItems;
+    }
+    
+    private static List<RequirementPlan.ItemQuantity> quantities(long[] thousandths, FoodItemInfo[] foodItems) {
+        List<RequirementPlan.ItemQuantity> quantities = new ArrayList<>();
+        for (int item = 0; item < thousandths.length; item++) {
+            if (thousandths[item] != 0) {
+                FoodItemInfo foodItem = foodItems[item];
+                quantities.add(new RequirementPlan.ItemQuantity(foodItem.id(), foodItem.name(), foodItem.nameMarathi(),
+                        foodItem.unit(), BigDecimal.valueOf(thousandths[item], 3)));
+            }
+        }
+        return quantities;
+    }
+    
+    // A template quantity of zero for a grade falls back to that food item's norm in food_quantities
+    private static long thousandths(BigDecimal quantity, BigDecimal norm) {
+        BigDecimal perStudent = quantity != null && quantity.signum() != 0 ? quantity : norm;
+        return perStudent != null ? perStudent.movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact() : 0;
+    }
+    
+    private static class IntList {
+        
+        private int[] values = new int[256];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int get(int index) {
+            return values[index];
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.middaymeal.service;
+
+/**
+ * Thrown at once when a bounded work pool (password hashing, report generation) has no room for more
+ * work. The controllers answer it with 429 and a Retry-After of {@link #getRetryAfterSeconds()}, which the
+ * throwing service sets from how soon its pool usually has room again.
+ */
+public class SaturatedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int retryAfterSeconds;
+    
+    public SaturatedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.middaymeal.service;
 
+import com.middaymeal.dto.SchoolSummary;
 import com.middaymeal.entity.School;
 import com.middaymeal.repository.SchoolRepository;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,14 +16,24 @@ import java.util.Optional;
 public class SchoolService {
     
     private final SchoolRepository schoolRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final SearchService searchService;
+    private final ReportingViewService reportingViewService;
+    private final ReferenceDataVersions referenceDataVersions;
     
     @Autowired
-    public SchoolService(SchoolRepository schoolRepository) {
+    public SchoolService(SchoolRepository schoolRepository, DashboardStatsService dashboardStatsService,
+                         SearchService searchService, ReportingViewService reportingViewService,
+                         ReferenceDataVersions referenceDataVersions) {
         this.schoolRepository = schoolRepository;
+        this.dashboardStatsService = dashboardStatsService;
+        this.searchService = searchService;
+        this.reportingViewService = reportingViewService;
+        this.referenceDataVersions = referenceDataVersions;
     }
     
-    public List<School> getAllActiveSchools() {
-        return schoolRepository.findByActiveTrue();
+    public List<SchoolSummary> getAllActiveSchools() {
+        return schoolRepository.findActiveSummaries();
     }
     
     public Optional<School> getSchoolById(Long id) {
@@ -33,7 +45,14 @@ public class SchoolService {
     }
     
     public School createSchool(School school) {
-        return schoolRepository.save(school);
+        School savedSchool = schoolRepository.save(school);
+        if (Boolean.TRUE.equals(savedSchool.getActive())) {
+            dashboardStatsService.schoolActivated();
+        }
+        searchService.schoolChanged(savedSchool);
+        reportingViewService.schoolsChanged();
+        referenceDataVersions.changed(ReferenceData.SCHOOLS);
+        return savedSchool;
     }
     
     public School updateSchool(Long id, School schoolDetails) {
@@ -50,30 +69,42 @@ public class SchoolService {
         school.setEmail(schoolDetails.getEmail());
         school.setPrincipalName(schoolDetails.getPrincipalName());
         school.setTotalStudents(schoolDetails.getTotalStudents());
+        school.setGrade1To5Count(schoolDetails.getGrade1To5Count());
+        school.setGrade6To8Count(schoolDetails.getGrade6To8Count());
         
-        return schoolRepository.save(school);
+        School savedSchool = schoolRepository.save(school);
+        searchService.schoolChanged(savedSchool);
+        reportingViewService.schoolsChanged();
+        referenceDataVersions.changed(ReferenceData.SCHOOLS);
+        return savedSchool;
     }
     
     public void deleteSchool(Long id) {
         School school = schoolRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("School not found with id: " + id));
+        if (Boolean.TRUE.equals(school.getActive())) {
+            dashboardStatsService.schoolDeactivated();
+        }
         school.setActive(false);
         schoolRepository.save(school);
+        searchService.schoolChanged(school);
+        reportingViewService.schoolsChanged();
+        referenceDataVersions.changed(ReferenceData.SCHOOLS);
     }
     
-    public List<School> searchSchools(String search) {
-        return schoolRepository.searchSchools(search);
+    public List<SchoolSummary> searchSchools(String search, int limit) {
+        return searchService.searchSchools(search, limit);
     }
     
     public Long getTotalActiveSchools() {
         return schoolRepository.countActiveSchools();
     }
     
-    public List<School> getSchoolsByCity(String city) {
-        return schoolRepository.findByCity(city);
+    public List<SchoolSummary> getSchoolsByCity(String city) {
+        return schoolRepository.findSummariesByCity(city);
     }
     
-    public List<School> getSchoolsByState(String state) {
-        return schoolRepository.findByState(state);
+    public List<SchoolSummary> getSchoolsByState(String state) {
+        return schoolRepository.findSummariesByState(state);
     }
 }
\ No newline at end of file
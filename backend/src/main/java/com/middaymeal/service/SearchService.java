@@ -0,0 +1,151 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.FoodItemSummary;
+import com.middaymeal.dto.SchoolSummary;
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.entity.School;
+import com.middaymeal.repository.FoodItemRepository;
+import com.middaymeal.repository.SchoolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Type-ahead search for schools and food items. Latin-script queries of three or more characters
+ * run in Postgres against the trigram indexes from search_indexes.sql. Everything else (Marathi
+ * queries, which pg_trgm splits into nothing under most locales, one- and two-character queries,
+ * or a database without the indexes) is answered from in-memory n-gram indexes that are loaded at
+ * startup and kept in sync by the write paths after their transaction commits. Writes made through
+ * another instance only reach these indexes when this one restarts. Both paths match the query as a
+ * substring of the entry's fields joined with spaces and rank name prefixes first, so the answer does
+ * not depend on which path gives it.
+ */
+@Service
+public class SearchService {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    private static final int MIN_DATABASE_QUERY_LENGTH = 3;
+    
+    private final SchoolRepository schoolRepository;
+    private final FoodItemRepository foodItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final NgramIndex<SchoolSummary> schools = new NgramIndex<>();
+    private final NgramIndex<FoodItemSummary> foodItems = new NgramIndex<>();
+    
+    private volatile boolean schoolTrigramIndexes;
+    private volatile boolean foodItemTrigramIndexes;
+    // Until the in-memory indexes are loaded every query goes to the database
+    private volatile boolean loaded;
+    
+    @Autowired
+    public SearchService(SchoolRepository schoolRepository, FoodItemRepository foodItemRepository,
+                         JdbcTemplate jdbcTemplate) {
+        this.schoolRepository = schoolRepository;
+        this.foodItemRepository = foodItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        schoolTrigramIndexes = indexExists("idx_schools_search_trgm");
+        foodItemTrigramIndexes = indexExists("idx_food_items_search_trgm");
+        schoolRepository.findActiveSummaries().forEach(this::indexSchool);
+        foodItemRepository.findActiveSummaries().forEach(this::indexFoodItem);
+        loaded = true;
+        logger.info("Search indexes loaded: {} schools, {} food items (database trigram indexes: schools {}, food items {})",
+                schools.size(), foodItems.size(), schoolTrigramIndexes, foodItemTrigramIndexes);
+        if (!schoolTrigramIndexes || !foodItemTrigramIndexes) {
+            logger.warn("Trigram indexes missing, apply database/search_indexes.sql; searching in memory meanwhile");
+        }
+    }
+    
+    public List<SchoolSummary> searchSchools(String query, int limit) {
+        if (query.isBlank()) {
+            return List.of();
+        }
+        int max = clamp(limit);
+        if (!loaded || schoolTrigramIndexes && databaseCanServe(query)) {
+            return schoolRepository.searchSchools(contains(query), prefix(query), PageRequest.of(0, max));
+        }
+        return schools.search(query, max);
+    }
+    
+    public List<FoodItemSummary> searchFoodItems(String query, int limit) {
+        if (query.isBlank()) {
+            return List.of();
+        }
+        int max = clamp(limit);
+        if (!loaded || foodItemTrigramIndexes && databaseCanServe(query)) {
+            return foodItemRepository.searchFoodItems(contains(query), prefix(query), PageRequest.of(0, max));
+        }
+        return foodItems.search(query, max);
+    }
+    
+    // Inactive schools and food items drop out of search
+    public void schoolChanged(School school) {
+        SchoolSummary summary = new SchoolSummary(school);
+        TransactionCallbacks.afterCommit(() -> {
+            if (Boolean.TRUE.equals(summary.active())) {
+                indexSchool(summary);
+            } else {
+                schools.remove(summary.id());
+            }
+        });
+    }
+    
+    public void foodItemChanged(FoodItem foodItem) {
+        FoodItemSummary summary = new FoodItemSummary(foodItem);
+        boolean active = Boolean.TRUE.equals(foodItem.getActive());
+        TransactionCallbacks.afterCommit(() -> {
+            if (active) {
+                indexFoodItem(summary);
+            } else {
+                foodItems.remove(summary.id());
+            }
+        });
+    }
+    
+    private void indexSchool(SchoolSummary school) {
+        schools.put(school.id(), school, school.name(), school.code(), school.city());
+    }
+    
+    private void indexFoodItem(FoodItemSummary foodItem) {
+        foodItems.put(foodItem.id(), foodItem, foodItem.name(), foodItem.nameMarathi());
+    }
+    
+    private boolean indexExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+    
+    private static boolean databaseCanServe(String query) {
+        String trimmed = query.trim();
+        return trimmed.length() >= MIN_DATABASE_QUERY_LENGTH && trimmed.chars().allMatch(c -> c < 0x80);
+    }
+    
+    private static String contains(String query) {
+        return "%" + escapeLike(NgramIndex.normalize(query)) + "%";
+    }
+    
+    private static String prefix(String query) {
+        return escapeLike(NgramIndex.normalize(query)) + "%";
+    }
+    
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.FoodItemSummary;
+import com.middaymeal.dto.MealRecordResponse;
+import com.middaymeal.dto.MenuSummary;
+import com.middaymeal.dto.SchoolSummary;
+import com.middaymeal.dto.SyncChanges;
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.entity.MealRecord;
+import com.middaymeal.entity.Menu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync for the mobile app (database/mobile_sync.sql). A sync returns the rows of a school's data
+ * changed since the client's token, found by updated_at, and the ids of rows deleted or deactivated since.
+ * Meal records and menus are limited to the last history-days days; the client drops older ones itself.
+ * <p>
+ * All queries read one snapshot. updated_at is stamped when a row is written, not when its transaction
+ * commits, so a change committed just after the snapshot can carry an earlier time; the next token is
+ * therefore the snapshot's time less the overlap, and changes within the overlap are sent again (clients
+ * apply rows by id, so a repeat is harmless).
+ */
+@Service
+public class SyncService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+    
+    private static final String SCHOOL =
+            "SELECT id, name, code, address, city, state, phone, email, principal_name, total_students, active " +
+            "FROM schools WHERE id = ? AND updated_at > ?";
+    
+    private static final String MENUS =
+            "SELECT id, date, meal_type, menu_description, menu_description_marathi, active " +
+            "FROM menus WHERE date >= ? AND updated_at > ?";
+    
+    private static final String MENU_FOOD_ITEMS =
+            "SELECT mfi.id, mfi.menu_id, mfi.food_item_id, mfi.quantity_per_student, mfi.notes " +
+            "FROM menu_food_items mfi JOIN menus m ON m.id = mfi.menu_id " +
+            "WHERE m.date >= ? AND m.active AND mfi.updated_at > ?";
+    
+    private static final String FOOD_ITEMS =
+            "SELECT id, name, name_marathi, category, unit, active FROM food_items WHERE updated_at > ?";
+    
+    private static final String MEAL_RECORDS =
+            "SELECT id, school_id, menu_id, date, students_present, meals_served, grade_1_5_present, grade_6_8_present, " +
+            "teacher_in_charge, remarks, photo_url, meal_quality " +
+            "FROM meal_records WHERE school_id = ? AND date >= ? AND updated_at > ?";
+    
+    private static final String DELETIONS =
+            "SELECT table_name, row_id FROM sync_deletions " +
+            "WHERE deleted_at > ? AND (school_id IS NULL OR school_id = ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int historyDays;
+    private final Duration overlap;
+    private final Duration deletionRetention;
+    
+    @Autowired
+    public SyncService(JdbcTemplate jdbcTemplate,
+                       @Value("${app.sync.history-days:60}") int historyDays,
+                       @Value("${app.sync.overlap:PT5M}") Duration overlap,
+                       @Value("${app.sync.deletion-retention:P30D}") Duration deletionRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyDays = historyDays;
+        this.overlap = overlap;
+        this.deletionRetention = deletionRetention;
+    }
+    
+    /**
+     * Changes to the given school's data since token, or all of it when token is null.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncChanges getChanges(Long schoolId, String token) {
+        requireSyncTables();
+        LocalDateTime snapshotTime = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        LocalDateTime since = parseToken(token);
+        // Deletions before the retention are gone, so the client cannot be brought up to date from them
+        boolean full = since == null || since.isBefore(snapshotTime.minus(deletionRetention));
+        if (full) {
+            since = LocalDateTime.of(1970, 1, 1, 0, 0);
+        }
+        LocalDate horizon = snapshotTime.toLocalDate().minusDays(historyDays);
+        
+        List<Long> deletedSchools = new ArrayList<>();
+        List<Long> deletedMenus = new ArrayList<>();
+        List<Long> deletedMenuFoodItems = new ArrayList<>();
+        List<Long> deletedFoodItems = new ArrayList<>();
+        List<Long> deletedMealRecords = new ArrayList<>();
+        
+        List<SchoolSummary> schools = new ArrayList<>();
+        jdbcTemplate.query(SCHOOL, rs -> {
+            if (rs.getBoolean(11)) {
+                schools.add(new SchoolSummary(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9),
+                        rs.getObject(10, Integer.class), true));
+            } else {
+                deletedSchools.add(rs.getLong(1));
+            }
+        }, schoolId, since);
+        
+        List<MenuSummary> menus = new ArrayList<>();
+        jdbcTemplate.query(MENUS, rs -> {
+            if (rs.getBoolean(6)) {
+                menus.add(new MenuSummary(rs.getLong(1), rs.getObject(2, LocalDate.class),
+                        Menu.MealType.valueOf(rs.getString(3)), rs.getString(4), rs.getString(5)));
+            } else {
+                deletedMenus.add(rs.getLong(1));
+            }
+        }, horizon, since);
+        
+        List<SyncChanges.MenuFoodItem> menuFoodItems = jdbcTemplate.query(MENU_FOOD_ITEMS, (rs, rowNum) ->
+                new SyncChanges.MenuFoodItem(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4),
+                        rs.getString(5)), horizon, since);
+        
+        List<FoodItemSummary> foodItems = new ArrayList<>();
+        jdbcTemplate.query(FOOD_ITEMS, rs -> {
+            if (rs.getBoolean(6)) {
+                foodItems.add(new FoodItemSummary(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        enumOf(FoodItem.FoodCategory.class, rs.getString(4)), enumOf(FoodItem.Unit.class, rs.getString(5))));
+            } else {
+                deletedFoodItems.add(rs.getLong(1));
+            }
+        }, since);
+        
+        List<MealRecordResponse> mealRecords = jdbcTemplate.query(MEAL_RECORDS,
+                (rs, rowNum) -> mealRecord(rs), schoolId, horizon, since);
+        
+        if (!full) {
+            jdbcTemplate.query(DELETIONS, rs -> {
+                long id = rs.getLong(2);
+                switch (rs.getString(1)) {
+                    case "schools" -> deletedSchools.add(id);
+                    case "menus" -> deletedMenus.add(id);
+                    case "menu_food_items" -> deletedMenuFoodItems.add(id);
+                    case "food_items" -> deletedFoodItems.add(id);
+                    case "meal_records" -> deletedMealRecords.add(id);
+                    default -> { }
+                }
+            }, since, schoolId);
+        } else {
+            // A full sync replaces what the client has, so it needs no deletions
+            deletedSchools.clear();
+            deletedMenus.clear();
+            deletedFoodItems.clear();
+        }
+        
+        return new SyncChanges(snapshotTime.minus(overlap).toString(), full, schools, menus, menuFoodItems, foodItems,
+                mealRecords, new SyncChanges.Deleted(deletedSchools, deletedMenus, deletedMenuFoodItems,
+                deletedFoodItems, deletedMealRecords));
+    }
+    
+    @Scheduled(cron = "${app.sync.purge-cron:0 30 2 * * *}")
+    public void purgeDeletions() {
+        if (!syncTablesPresent()) {
+            return;
+        }
+        int purged = jdbcTemplate.update("DELETE FROM sync_deletions WHERE deleted_at < LOCALTIMESTAMP - ?::interval",
+                deletionRetention.toSeconds() + " seconds");
+        if (purged > 0) {
+            logger.info("Purged {} sync deletions older than {}", purged, deletionRetention);
+        }
+    }
+    
+    private static LocalDateTime parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(token);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token);
+        }
+    }
+    
+    private static MealRecordResponse mealRecord(ResultSet rs) throws SQLException {
+        MealRecordResponse record = new MealRecordResponse();
+        record.setId(rs.getLong(1));
+        record.setSchoolId(rs.getLong(2));
+        record.setMenuId(rs.getLong(3));
+        record.setDate(rs.getObject(4, LocalDate.class));
+        record.setStudentsPresent(rs.getInt(5));
+        record.setMealsServed(rs.getInt(6));
+        record.setGrade1To5Present(rs.getObject(7, Integer.class));
+        record.setGrade6To8Present(rs.getObject(8, Integer.class));
+        record.setTeacherInCharge(rs.getString(9));
+        record.setRemarks(rs.getString(10));
+        record.setPhotoUrl(rs.getString(11));
+        record.setMealQuality(enumOf(MealRecord.MealQuality.class, rs.getString(12)));
+        return record;
+    }
+    
+    private static <E extends Enum<E>> E enumOf(Class<E> type, String name) {
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+    
+    private void requireSyncTables() {
+        if (!syncTablesPresent()) {
+            throw new IllegalStateException("Sync is not set up, apply database/mobile_sync.sql");
+        }
+    }
+    
+    private boolean syncTablesPresent() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('sync_deletions') IS NOT NULL", Boolean.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.middaymeal.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers the side effects of a write (caches, counters, the search index, stale views) to the end of
+// the surrounding transaction. Outside a transaction the action runs at once.
+final class TransactionCallbacks {
+    
+    private TransactionCallbacks() {}
+    
+    // For effects a rolled-back write must not have, or that must not run before the write is visible
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    // For evictions, which are due whether the transaction commits or rolls back
+    static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
\ No newline at end of file
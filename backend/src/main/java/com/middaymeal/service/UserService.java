@@ -1,34 +1,59 @@
 package com.middaymeal.service;
 
+import com.middaymeal.dto.CreateUserRequest;
+import com.middaymeal.dto.UpdateUserRequest;
+import com.middaymeal.dto.UserPage;
+import com.middaymeal.dto.UserSummary;
+import com.middaymeal.entity.School;
 import com.middaymeal.entity.User;
+import com.middaymeal.repository.SchoolRepository;
 import com.middaymeal.repository.UserRepository;
+import com.middaymeal.service.ReferenceDataVersions.ReferenceData;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class UserService {
     
+    public static final int MAX_PAGE_SIZE = 100;
+    
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final SchoolRepository schoolRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final DashboardStatsService dashboardStatsService;
+    private final ReferenceDataVersions referenceDataVersions;
+    private final TransactionTemplate transactionTemplate;
     
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, SchoolRepository schoolRepository,
+                       PasswordHashingService passwordHashingService, DashboardStatsService dashboardStatsService,
+                       ReferenceDataVersions referenceDataVersions, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.schoolRepository = schoolRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.referenceDataVersions = referenceDataVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
-    public List<User> getAllActiveUsers() {
-        return userRepository.findByActiveTrue();
+    public List<UserSummary> getAllActiveUsers() {
+        return userRepository.findActiveSummaries();
     }
     
-    public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+    public Optional<UserSummary> getUserById(Long id) {
+        return userRepository.findById(id).map(UserSummary::new);
     }
     
     public Optional<User> getUserByUsername(String username) {
@@ -39,53 +64,113 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
     
-    public User createUser(User user) {
-        // Encode password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+    // Hashes before the transaction, which would otherwise hold a pooled connection for the whole hash;
+    // the request must not have used the database before, as open-in-view keeps its connection to the end
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public User createUser(CreateUserRequest request) {
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+        return transactionTemplate.execute(status -> {
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+            if (request.getEmail() != null && userRepository.existsByEmail(request.getEmail())) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setPassword(passwordHash);
+            user.setFullName(request.getFullName());
+            user.setEmail(request.getEmail());
+            user.setPhone(request.getPhone());
+            user.setRole(request.getRole());
+            user.setSchool(findSchool(request.getSchoolId()));
+            User savedUser = userRepository.save(user);
+            if (Boolean.TRUE.equals(savedUser.getActive())) {
+                dashboardStatsService.userActivated();
+            }
+            referenceDataVersions.changed(ReferenceData.USERS);
+            return savedUser;
+        });
     }
     
-    public User updateUser(Long id, User userDetails) {
+    // Role, school and active are applied for an admin only, never from a user's edit of themselves.
+    // A new password is hashed before the transaction, as in createUser.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public User updateUser(Long id, UpdateUserRequest request, boolean byAdmin) {
+        // Only update password if provided and not empty
+        String passwordHash = request.getPassword() != null && !request.getPassword().trim().isEmpty()
+                ? passwordHashingService.encode(request.getPassword()) : null;
+        return transactionTemplate.execute(status -> applyUpdate(id, request, byAdmin, passwordHash));
+    }
+    
+    private User applyUpdate(Long id, UpdateUserRequest request, boolean byAdmin, String passwordHash) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
-        user.setFullName(userDetails.getFullName());
-        user.setEmail(userDetails.getEmail());
-        user.setPhone(userDetails.getPhone());
-        user.setRole(userDetails.getRole());
-        user.setSchool(userDetails.getSchool());
+        user.setFullName(request.getFullName());
+        user.setEmail(request.getEmail());
+        user.setPhone(request.getPhone());
+        if (byAdmin) {
+            if (request.getRole() != null) {
+                user.setRole(request.getRole());
+            }
+            user.setSchool(findSchool(request.getSchoolId()));
+            if (request.getActive() != null && !request.getActive().equals(user.getActive())) {
+                if (request.getActive()) {
+                    dashboardStatsService.userActivated();
+                } else {
+                    dashboardStatsService.userDeactivated();
+                }
+                user.setActive(request.getActive());
+            }
+        }
         
-        // Only update password if provided and not empty
-        if (userDetails.getPassword() != null && !userDetails.getPassword().trim().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+        if (passwordHash != null) {
+            user.setPassword(passwordHash);
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        referenceDataVersions.changed(ReferenceData.USERS);
+        return savedUser;
+    }
+    
+    private School findSchool(Long schoolId) {
+        return schoolId == null ? null : schoolRepository.findById(schoolId)
+                .orElseThrow(() -> new IllegalArgumentException("School not found"));
     }
     
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        if (Boolean.TRUE.equals(user.getActive())) {
+            dashboardStatsService.userDeactivated();
+        }
         user.setActive(false);
         userRepository.save(user);
+        referenceDataVersions.changed(ReferenceData.USERS);
     }
     
-    public List<User> searchUsers(String query) {
-        return userRepository.findByActiveTrue().stream()
-                .filter(user -> 
-                    user.getFullName().toLowerCase().contains(query.toLowerCase()) ||
-                    user.getUsername().toLowerCase().contains(query.toLowerCase()) ||
-                    (user.getEmail() != null && user.getEmail().toLowerCase().contains(query.toLowerCase()))
-                )
-                .toList();
+    // Matches the query anywhere in the username, full name or email; a blank query only applies the filters
+    public UserPage searchUsers(String query, User.Role role, Long schoolId, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize, Sort.by("fullName", "id"));
+        Page<UserSummary> users;
+        if (query == null || query.isBlank()) {
+            users = userRepository.findDirectory(role, schoolId, pageRequest);
+        } else {
+            String pattern = "%" + query.trim().toLowerCase(Locale.ROOT)
+                    .replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+            users = userRepository.searchDirectory(pattern, role, schoolId, pageRequest);
+        }
+        return new UserPage(users.getContent(), users.getNumber(), pageSize, users.getTotalElements());
     }
     
-    public List<User> getUsersBySchool(Long schoolId) {
-        return userRepository.findBySchoolIdAndActiveTrue(schoolId);
+    public List<UserSummary> getUsersBySchool(Long schoolId) {
+        return userRepository.findSummariesBySchool(schoolId);
     }
     
-    public List<User> getUsersByRole(User.Role role) {
-        return userRepository.findByRole(role);
+    public List<UserSummary> getUsersByRole(User.Role role) {
+        return userRepository.findSummariesByRole(role);
     }
     
     public boolean existsByUsername(String username) {
@@ -97,6 +182,6 @@ public class UserService {
     }
     
     public Long getTotalActiveUsers() {
-        return (long) userRepository.findByActiveTrue().size();
+        return userRepository.countByActiveTrue();
     }
 }
\ No newline at end of file
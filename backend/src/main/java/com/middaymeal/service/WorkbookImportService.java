@@ -0,0 +1,186 @@
+package com.middaymeal.service;
+
+import com.middaymeal.dto.BulkIngestResult;
+import com.middaymeal.dto.MealRecordRequest;
+import com.middaymeal.dto.WorkbookImportResult;
+import com.middaymeal.entity.FoodItem;
+import com.middaymeal.entity.Menu;
+import com.middaymeal.entity.MenuFoodItem;
+import com.middaymeal.entity.School;
+import com.middaymeal.repository.FoodItemRepository;
+import com.middaymeal.repository.MenuRepository;
+import com.middaymeal.repository.SchoolRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional
+public class WorkbookImportService {
+    
+    private static final BigDecimal GRAMS_PER_KG = new BigDecimal("1000");
+    
+    private final SchoolRepository schoolRepository;
+    private final MenuRepository menuRepository;
+    private final FoodItemRepository foodItemRepository;
+    private final MenuService menuService;
+    private final MealRecordService mealRecordService;
+    
+    @Autowired
+    public WorkbookImportService(SchoolRepository schoolRepository, MenuRepository menuRepository,
+                                 FoodItemRepository foodItemRepository, MenuService menuService,
+                                 MealRecordService mealRecordService) {
+        this.schoolRepository = schoolRepository;
+        this.menuRepository = menuRepository;
+        this.foodItemRepository = foodItemRepository;
+        this.menuService = menuService;
+        this.mealRecordService = mealRecordService;
+    }
+    
+    // The whole workbook is one transaction so a month is never half imported. A dry run goes through
+    // exactly the same inserts and checks, then rolls back.
+    public WorkbookImportResult importMonthlyWorkbook(Long schoolId, File workbook, boolean dryRun) throws IOException {
+        School school = schoolRepository.findById(schoolId)
+                .orElseThrow(() -> new IllegalArgumentException("School not found with id: " + schoolId));
+        MonthlyWorkbookReader.Contents contents = MonthlyWorkbookReader.read(workbook);
+        
+        WorkbookImportResult result = new WorkbookImportResult(school.getId(), dryRun);
+        contents.warnings.forEach(result::addWarning);
+        result.setDaysRead(contents.days.size());
+        if (contents.days.isEmpty()) {
+            result.setMealRecords(new BulkIngestResult(0));
+            return result;
+        }
+        
+        YearMonth month = YearMonth.from(contents.days.get(0).date());
+        Map<String, FoodItem> foodItems = foodItemsByMarathiName();
+        Set<String> unknownIngredients = new LinkedHashSet<>();
+        
+        List<MealRecordRequest> requests = new ArrayList<>();
+        List<Integer> requestRows = new ArrayList<>();
+        for (MonthlyWorkbookReader.RegisterDay day : contents.days) {
+            if (!YearMonth.from(day.date()).equals(month)) {
+                result.addWarning("Row " + day.rowNumber() + ": " + day.date() + " is outside " + month + ", skipped");
+                continue;
+            }
+            if (day.holiday()) {
+                result.setHolidays(result.getHolidays() + 1);
+                continue;
+            }
+            if (day.present1to5() == null && day.present6to8() == null) {
+                result.addWarning("Row " + day.rowNumber() + ": no attendance entered for " + day.date() + ", skipped");
+                continue;
+            }
+            
+            Menu menu = findOrCreateMenu(day, contents, foodItems, unknownIngredients, result);
+            int present = (day.present1to5() != null ? day.present1to5() : 0)
+                    + (day.present6to8() != null ? day.present6to8() : 0);
+            
+            MealRecordRequest request = new MealRecordRequest();
+            request.setSchoolId(school.getId());
+            request.setMenuId(menu.getId());
+            request.setDate(day.date());
+            request.setStudentsPresent(present);
+            request.setGrade1To5Present(day.present1to5());
+            request.setGrade6To8Present(day.present6to8());
+            // The register counts one plate per student present
+            request.setMealsServed(present);
+            requests.add(request);
+            requestRows.add(day.rowNumber());
+        }
+        unknownIngredients.forEach(name ->
+                result.addWarning("No food item named '" + name + "'; its quantities were not imported"));
+        
+        BulkIngestResult created = mealRecordService.bulkCreateMealRecords(requests);
+        result.setMealRecords(toSheetRows(created, requestRows));
+        
+        if (dryRun) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return result;
+    }
+    
+    private Menu findOrCreateMenu(MonthlyWorkbookReader.RegisterDay day, MonthlyWorkbookReader.Contents contents,
+                                  Map<String, FoodItem> foodItems, Set<String> unknownIngredients,
+                                  WorkbookImportResult result) {
+        // Menus are shared by all schools, so one already set up for the day is kept as is
+        Menu existing = menuRepository.findByDateAndMealType(day.date(), Menu.MealType.LUNCH).orElse(null);
+        if (existing != null) {
+            result.menuReused();
+            return existing;
+        }
+        
+        Menu menu = new Menu(day.date(), Menu.MealType.LUNCH);
+        menu.setMenuDescription(day.menuName());
+        menu.setMenuDescriptionMarathi(day.menuName());
+        
+        List<MenuFoodItem> menuFoodItems = new ArrayList<>();
+        MonthlyWorkbookReader.MenuQuantities quantities = contents.quantities.get(day.menuName());
+        if (quantities == null) {
+            result.addWarning("Row " + day.rowNumber() + ": no quantities found for menu '" + day.menuName() + "'");
+        } else {
+            quantities.gramsPerStudent().forEach((ingredient, grams) -> {
+                FoodItem foodItem = foodItems.get(normalize(ingredient));
+                if (foodItem == null) {
+                    unknownIngredients.add(ingredient.trim());
+                } else {
+                    menuFoodItems.add(new MenuFoodItem(menu, foodItem, perStudentQuantity(foodItem, grams)));
+                }
+            });
+        }
+        menu.setMenuFoodItems(menuFoodItems);
+        
+        // Through MenuService so the cached lookups for the day and month are invalidated
+        Menu savedMenu = menuService.createMenu(menu);
+        result.menuCreated(menuFoodItems.size());
+        return savedMenu;
+    }
+    
+    private Map<String, FoodItem> foodItemsByMarathiName() {
+        Map<String, FoodItem> byName = new HashMap<>();
+        for (FoodItem foodItem : foodItemRepository.findByActiveTrue()) {
+            if (foodItem.getNameMarathi() != null) {
+                byName.putIfAbsent(normalize(foodItem.getNameMarathi()), foodItem);
+            }
+        }
+        return byName;
+    }
+    
+    // The quantity sheet is in grams (oil in ml); convert when the food item is stocked in kg or litres
+    private BigDecimal perStudentQuantity(FoodItem foodItem, BigDecimal grams) {
+        if (foodItem.getUnit() == FoodItem.Unit.KG || foodItem.getUnit() == FoodItem.Unit.LITRE) {
+            return grams.divide(GRAMS_PER_KG, 3, RoundingMode.HALF_UP);
+        }
+        return grams.setScale(3, RoundingMode.HALF_UP);
+    }
+    
+    private BulkIngestResult toSheetRows(BulkIngestResult created, List<Integer> requestRows) {
+        BulkIngestResult result = new BulkIngestResult(created.getReceived());
+        for (BulkIngestResult.RowResult row : created.getRows()) {
+            int sheetRow = requestRows.get(row.index());
+            if (row.status() == BulkIngestResult.RowStatus.CREATED) {
+                result.addCreated(sheetRow, row.id());
+            } else {
+                result.addRejected(sheetRow, row.error());
+            }
+        }
+        return result;
+    }
+    
+    private static String normalize(String name) {
+        return name.replaceAll("\\s+", "");
+    }
+}
\ No newline at end of file
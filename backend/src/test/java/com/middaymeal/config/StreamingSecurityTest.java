@@ -0,0 +1,75 @@
+package com.middaymeal.config;
+
+import com.middaymeal.controller.ReportController;
+import com.middaymeal.dto.AuthenticatedUser;
+import com.middaymeal.entity.User;
+import com.middaymeal.service.JwtService;
+import com.middaymeal.service.RegisterExportService;
+import com.middaymeal.service.ReportJobService;
+import com.middaymeal.service.ReportingViewService;
+import com.middaymeal.service.SchoolService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A streamed response is written on an async dispatch of the request, which the token filter does not
+// run for; the dispatch must still be authenticated from the token of the original request.
+@WebMvcTest(ReportController.class)
+@Import(SecurityConfig.class)
+@MockBean(JpaMetamodelMappingContext.class)
+class StreamingSecurityTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private RegisterExportService registerExportService;
+    @MockBean
+    private ReportingViewService reportingViewService;
+    @MockBean
+    private SchoolService schoolService;
+    @MockBean
+    private ReportJobService reportJobService;
+    
+    @Test
+    void asyncDispatchOfStreamedExportIsAuthenticated() throws Exception {
+        when(jwtService.authenticate("token"))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "admin", User.Role.ADMIN, null)));
+        
+        MvcResult result = mockMvc.perform(get("/reports/register/monthly")
+                        .param("year", "2026").param("month", "10")
+                        .header("Authorization", "Bearer token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        
+        verify(registerExportService).writeRegionRegister(isNull(), isNull(), eq(YearMonth.of(2026, 10)), any(), any());
+    }
+    
+    @Test
+    void requestWithoutTokenIsRefused() throws Exception {
+        mockMvc.perform(get("/reports/register/monthly").param("year", "2026").param("month", "10"))
+                .andExpect(status().isUnauthorized());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+-- Monthly food requirement planning
+-- RequirementService plans a month from the weekday meal templates (meal_templates/template_food_items and
+-- food_quantities, see enhanced_meal_schema.sql) and each school's enrolment by grade band.
+
+-- Enrolment by grade band; schools left at 0/0 are planned from total_students at grade 1-5 quantities
+ALTER TABLE schools ADD COLUMN IF NOT EXISTS grade_1_5_count INTEGER DEFAULT 0;
+ALTER TABLE schools ADD COLUMN IF NOT EXISTS grade_6_8_count INTEGER DEFAULT 0;
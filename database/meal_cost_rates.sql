@@ -0,0 +1,41 @@
+-- Versioned, effective-dated meal cost rates
+-- MealCostService prices meal records from this table in integer paise and writes total_cost/cooking_cost
+-- back in bulk: POST /api/costs/reconcile?year=&month=  (replaces per-row calculate_meal_cost calls).
+
+-- Attendance by grade band (also added by enhanced_meal_schema.sql); records without it are priced
+-- as meals_served at the grade 1-5 rate
+ALTER TABLE meal_records ADD COLUMN IF NOT EXISTS grade_1_5_present INTEGER DEFAULT 0;
+ALTER TABLE meal_records ADD COLUMN IF NOT EXISTS grade_6_8_present INTEGER DEFAULT 0;
+
+-- Per student per day, in paise. A rate applies from effective_from until the next effective_from.
+-- Rows are never edited: a correction is a new row with the same effective_from and a higher version.
+CREATE TABLE IF NOT EXISTS meal_cost_rates (
+    id BIGSERIAL PRIMARY KEY,
+    effective_from DATE NOT NULL,
+    version INTEGER NOT NULL DEFAULT 1,
+    grade_1_5_paise INTEGER NOT NULL CHECK (grade_1_5_paise >= 0),
+    grade_6_8_paise INTEGER NOT NULL CHECK (grade_6_8_paise >= 0),
+    -- Cooking cost (fuel, vegetables) where the rate order gives it separately; goes to cooking_cost
+    grade_1_5_cooking_paise INTEGER NOT NULL DEFAULT 0 CHECK (grade_1_5_cooking_paise >= 0),
+    grade_6_8_cooking_paise INTEGER NOT NULL DEFAULT 0 CHECK (grade_6_8_cooking_paise >= 0),
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(effective_from, version)
+);
+
+-- The rates calculate_meal_cost hard-coded (₹2.59 grade 1-5, ₹3.88 grade 6-8)
+INSERT INTO meal_cost_rates (effective_from, version, grade_1_5_paise, grade_6_8_paise, notes)
+VALUES ('2000-01-01', 1, 259, 388, 'Maharashtra MDM rates from cost_calculation_system.sql')
+ON CONFLICT (effective_from, version) DO NOTHING;
+
+-- Keep the SQL function for the views that use it, priced at today's rate
+CREATE OR REPLACE FUNCTION calculate_meal_cost(
+    p_grade_1_5_count INT,
+    p_grade_6_8_count INT
+) RETURNS DECIMAL(10,2) AS $$
+    SELECT ((p_grade_1_5_count * grade_1_5_paise + p_grade_6_8_count * grade_6_8_paise) / 100.0)::DECIMAL(10,2)
+    FROM meal_cost_rates
+    WHERE effective_from <= CURRENT_DATE
+    ORDER BY effective_from DESC, version DESC
+    LIMIT 1;
+$$ LANGUAGE sql STABLE;
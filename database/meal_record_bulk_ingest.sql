@@ -0,0 +1,6 @@
+-- Bulk meal record ingestion
+-- The backend allocates meal record ids from meal_records_id_seq in blocks of 50 (Hibernate pooled
+-- optimizer), which is what allows inserts to be sent as JDBC batches. The sequence increment must
+-- match the allocationSize on MealRecord.id.
+
+ALTER SEQUENCE meal_records_id_seq INCREMENT BY 50;
@@ -0,0 +1,6 @@
+-- Keyset pagination support for meal records
+-- Listing and streaming order by (date, id) and seek past the last row of the previous page,
+-- so these composite indexes keep every page an index range scan regardless of how deep it is.
+
+CREATE INDEX IF NOT EXISTS idx_meal_records_date_id ON meal_records(date, id);
+CREATE INDEX IF NOT EXISTS idx_meal_records_school_date_id ON meal_records(school_id, date, id);
@@ -0,0 +1,49 @@
+-- One meal record per school, menu and day
+-- schema.sql declares UNIQUE (school_id, menu_id, date), but databases whose meal_records table was
+-- created by the backend (ddl-auto) may lack it, and retried submissions then left duplicate records.
+-- The backend's meal record submission upserts on this key (INSERT ... ON CONFLICT), which needs it.
+-- Duplicates are removed first, keeping the most recently updated record of each; rebuild the rollups
+-- afterwards (POST /api/rollups/rebuild) as they counted the duplicates.
+
+BEGIN;
+
+CREATE TEMP TABLE duplicate_meal_records ON COMMIT DROP AS
+SELECT id, kept_id FROM (
+    SELECT id,
+           FIRST_VALUE(id) OVER (PARTITION BY school_id, menu_id, date ORDER BY updated_at DESC, id DESC) AS kept_id
+    FROM meal_records
+) records
+WHERE id <> kept_id;
+
+-- Consumption entered against a duplicate moves to the record that is kept. A food item has one row per
+-- record (UNIQUE (meal_record_id, food_item_id)), so where the kept record already has the item, or
+-- several duplicates do, only the kept record's row or else the most recent duplicate's is moved.
+DO $$
+BEGIN
+    IF to_regclass('daily_consumption') IS NOT NULL THEN
+        DELETE FROM daily_consumption dc USING (
+            SELECT c.id,
+                   ROW_NUMBER() OVER (PARTITION BY COALESCE(d.kept_id, c.meal_record_id), c.food_item_id
+                                      ORDER BY d.id IS NOT NULL, mr.updated_at DESC, mr.id DESC) AS position
+            FROM daily_consumption c
+            JOIN meal_records mr ON mr.id = c.meal_record_id
+            LEFT JOIN duplicate_meal_records d ON d.id = c.meal_record_id
+            WHERE d.id IS NOT NULL OR c.meal_record_id IN (SELECT kept_id FROM duplicate_meal_records)
+        ) ranked
+        WHERE dc.id = ranked.id AND ranked.position > 1;
+
+        UPDATE daily_consumption dc SET meal_record_id = d.kept_id
+        FROM duplicate_meal_records d WHERE dc.meal_record_id = d.id;
+    END IF;
+END $$;
+
+DELETE FROM meal_records mr USING duplicate_meal_records d WHERE mr.id = d.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'meal_records_school_id_menu_id_date_key') THEN
+        ALTER TABLE meal_records ADD CONSTRAINT meal_records_school_id_menu_id_date_key UNIQUE (school_id, menu_id, date);
+    END IF;
+END $$;
+
+COMMIT;
@@ -0,0 +1,132 @@
+-- Monthly range partitioning of meal_records on date
+-- Rebuilds meal_records as a partitioned table with one partition per month (meal_records_YYYY_MM) and a
+-- default partition for dates no month partition covers yet. Queries filtering on date (all the backend's
+-- period queries do) then only touch the months in range, and old months can be detached or archived
+-- as whole tables. Run once, in a maintenance window: the table is copied inside one transaction.
+-- Afterwards the backend creates upcoming months' partitions itself (app.partitioning.months-ahead) and
+-- moves rows that landed in the default partition into their own month's partition.
+--
+-- Notes:
+-- * The primary key becomes (id, date), as a partitioned table's unique keys must include the partition
+--   key. Ids stay unique: they still come from meal_records_id_seq.
+-- * daily_consumption.meal_record_id (enhanced_meal_schema.sql) can no longer be a foreign key for the
+--   same reason; the column stays, the constraint is dropped.
+-- * Views and materialized views reading meal_records are recreated with their indexes, and the table's
+--   triggers and other indexes are carried over.
+
+-- Creates the partition for the month containing p_month unless it exists, first moving that month's rows
+-- out of the default partition (a partition cannot be attached while the default one holds its rows)
+CREATE OR REPLACE FUNCTION create_meal_records_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::DATE;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_name TEXT := 'meal_records_' || to_char(p_month, 'YYYY_MM');
+BEGIN
+    -- Instances may run this at the same time
+    PERFORM pg_advisory_xact_lock(hashtext('create_meal_records_partition'));
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE meal_records INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    IF to_regclass('meal_records_default') IS NOT NULL THEN
+        -- The rows only change partition, so the sync trigger (mobile_sync.sql) must not report them deleted
+        PERFORM set_config('app.moving_partition_rows', 'on', true);
+        EXECUTE format('WITH moved AS (DELETE FROM meal_records_default WHERE date >= %L AND date < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', v_from, v_to, v_name);
+        PERFORM set_config('app.moving_partition_rows', 'off', true);
+    END IF;
+    EXECUTE format('ALTER TABLE meal_records ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+BEGIN;
+
+DO $$
+DECLARE
+    v_view RECORD;
+    v_index RECORD;
+    v_trigger RECORD;
+    v_month DATE;
+    v_last DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'meal_records'::regclass) THEN
+        RAISE NOTICE 'meal_records is already partitioned';
+        RETURN;
+    END IF;
+
+    -- Views over meal_records, with their indexes, to recreate on the new table (captured before the rename
+    -- so their definitions still name meal_records)
+    CREATE TEMP TABLE meal_records_dependent_views ON COMMIT DROP AS
+    SELECT DISTINCT c.oid, c.relname, c.relkind, pg_get_viewdef(c.oid) AS definition
+    FROM pg_depend d
+    JOIN pg_rewrite r ON r.oid = d.objid
+    JOIN pg_class c ON c.oid = r.ev_class
+    WHERE d.classid = 'pg_rewrite'::regclass AND d.refobjid = 'meal_records'::regclass
+      AND c.oid <> 'meal_records'::regclass;
+    CREATE TEMP TABLE meal_records_dependent_indexes ON COMMIT DROP AS
+    SELECT i.indexdef FROM pg_indexes i
+    JOIN meal_records_dependent_views v ON v.relname = i.tablename;
+    -- Indexes added by other scripts (unique ones are constraints, recreated below, or cannot be kept
+    -- without date), except the single-column ones the composite indexes below make redundant
+    CREATE TEMP TABLE meal_records_own_indexes ON COMMIT DROP AS
+    SELECT pg_get_indexdef(i.indexrelid) AS indexdef FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    WHERE i.indrelid = 'meal_records'::regclass AND NOT i.indisunique
+      AND c.relname NOT IN ('idx_meal_records_school_id', 'idx_meal_records_date', 'idx_meal_records_menu_id',
+                            'idx_meal_records_date_id', 'idx_meal_records_school_date_id');
+    CREATE TEMP TABLE meal_records_triggers ON COMMIT DROP AS
+    SELECT pg_get_triggerdef(oid) AS triggerdef FROM pg_trigger
+    WHERE tgrelid = 'meal_records'::regclass AND NOT tgisinternal;
+
+    ALTER TABLE meal_records RENAME TO meal_records_unpartitioned;
+    -- Keep the id sequence when the old table is dropped
+    ALTER SEQUENCE meal_records_id_seq OWNED BY NONE;
+
+    CREATE TABLE meal_records (LIKE meal_records_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (date);
+    CREATE TABLE meal_records_default PARTITION OF meal_records DEFAULT;
+
+    -- A partition for every month with records and the months up to three ahead
+    SELECT date_trunc('month', MIN(date))::DATE, date_trunc('month', MAX(date))::DATE
+    INTO v_month, v_last FROM meal_records_unpartitioned;
+    v_month := LEAST(COALESCE(v_month, CURRENT_DATE), date_trunc('month', CURRENT_DATE)::DATE);
+    v_last := GREATEST(COALESCE(v_last, CURRENT_DATE), (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE);
+    WHILE v_month <= v_last LOOP
+        PERFORM create_meal_records_partition(v_month);
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    INSERT INTO meal_records SELECT * FROM meal_records_unpartitioned;
+
+    -- Drops the views over the old table and daily_consumption's foreign key to it
+    DROP TABLE meal_records_unpartitioned CASCADE;
+    ALTER SEQUENCE meal_records_id_seq OWNED BY meal_records.id;
+
+    ALTER TABLE meal_records ADD CONSTRAINT meal_records_pkey PRIMARY KEY (id, date);
+    ALTER TABLE meal_records ADD CONSTRAINT meal_records_school_id_menu_id_date_key UNIQUE (school_id, menu_id, date);
+    ALTER TABLE meal_records ADD CONSTRAINT meal_records_school_id_fkey FOREIGN KEY (school_id) REFERENCES schools(id);
+    ALTER TABLE meal_records ADD CONSTRAINT meal_records_menu_id_fkey FOREIGN KEY (menu_id) REFERENCES menus(id);
+    -- school_id and date alone are served by these two
+    CREATE INDEX idx_meal_records_school_date_id ON meal_records(school_id, date, id);
+    CREATE INDEX idx_meal_records_date_id ON meal_records(date, id);
+    CREATE INDEX idx_meal_records_menu_id ON meal_records(menu_id);
+    FOR v_index IN SELECT * FROM meal_records_own_indexes LOOP
+        EXECUTE v_index.indexdef;
+    END LOOP;
+    FOR v_trigger IN SELECT * FROM meal_records_triggers LOOP
+        EXECUTE v_trigger.triggerdef;
+    END LOOP;
+
+    FOR v_view IN SELECT * FROM meal_records_dependent_views ORDER BY oid LOOP
+        EXECUTE format('CREATE %s %I AS %s', CASE WHEN v_view.relkind = 'm' THEN 'MATERIALIZED VIEW' ELSE 'VIEW' END,
+                       v_view.relname, v_view.definition);
+    END LOOP;
+    FOR v_index IN SELECT * FROM meal_records_dependent_indexes LOOP
+        EXECUTE v_index.indexdef;
+    END LOOP;
+END $$;
+
+COMMIT;
+
+ANALYZE meal_records;
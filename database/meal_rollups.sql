@@ -0,0 +1,46 @@
+-- Incremental meal rollups
+-- The backend keeps these tables up to date on every meal record create/update/delete.
+-- Backfill existing data with: POST /api/rollups/rebuild  or  java -jar app.jar --rebuild-rollups
+
+-- Cost columns on meal records (also added by enhanced_meal_schema.sql)
+ALTER TABLE meal_records ADD COLUMN IF NOT EXISTS total_cost DECIMAL(12,2) DEFAULT 0.00;
+ALTER TABLE meal_records ADD COLUMN IF NOT EXISTS cooking_cost DECIMAL(10,2) DEFAULT 0.00;
+
+-- Per-school daily aggregates
+CREATE TABLE IF NOT EXISTS daily_summaries (
+    id BIGSERIAL PRIMARY KEY,
+    school_id BIGINT NOT NULL REFERENCES schools(id),
+    date DATE NOT NULL,
+    record_count INTEGER NOT NULL DEFAULT 0,
+    meals_served BIGINT NOT NULL DEFAULT 0,
+    students_present BIGINT NOT NULL DEFAULT 0,
+    food_cost DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    cooking_cost DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT daily_summaries_school_id_date_key UNIQUE(school_id, date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_summaries_date ON daily_summaries(date);
+
+-- Per-school monthly aggregates (table defined in enhanced_meal_schema.sql)
+CREATE TABLE IF NOT EXISTS monthly_summaries (
+    id BIGSERIAL PRIMARY KEY,
+    school_id BIGINT NOT NULL REFERENCES schools(id),
+    year INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    total_meal_days INTEGER DEFAULT 0,
+    total_meals_served INTEGER DEFAULT 0,
+    average_attendance DECIMAL(8,2) DEFAULT 0.00,
+    total_food_cost DECIMAL(12,2) DEFAULT 0.00,
+    total_cooking_cost DECIMAL(12,2) DEFAULT 0.00,
+    generated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(school_id, year, month)
+);
+
+-- Attendance is averaged incrementally, so keep the running total alongside it
+ALTER TABLE monthly_summaries ADD COLUMN IF NOT EXISTS total_students_present BIGINT DEFAULT 0;
+-- Large schools average more than 999 students a day
+ALTER TABLE monthly_summaries ALTER COLUMN average_attendance TYPE DECIMAL(8,2);
+
+CREATE INDEX IF NOT EXISTS idx_monthly_summaries_school ON monthly_summaries(school_id);
+CREATE INDEX IF NOT EXISTS idx_monthly_summaries_date ON monthly_summaries(year, month);
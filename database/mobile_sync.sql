@@ -0,0 +1,56 @@
+-- Delta sync for the mobile app
+-- GET /api/sync returns the schools, menus, menu food items, food items and meal records changed since
+-- the client's last sync, found by updated_at (kept by the update triggers in schema.sql), and the ids of
+-- rows deleted since. Schools, menus and food items are deactivated rather than deleted; meal records
+-- and menu food items are deleted outright, so a trigger leaves a row in sync_deletions for each.
+-- The backend purges deletions older than app.sync.deletion-retention; a client that last synced before
+-- that is sent a full sync instead.
+
+CREATE INDEX IF NOT EXISTS idx_schools_updated_at ON schools(updated_at);
+CREATE INDEX IF NOT EXISTS idx_menus_updated_at ON menus(updated_at);
+CREATE INDEX IF NOT EXISTS idx_menu_food_items_updated_at ON menu_food_items(updated_at);
+CREATE INDEX IF NOT EXISTS idx_food_items_updated_at ON food_items(updated_at);
+-- A school's records only; date is in the key so the backend's date bound prunes partitioned meal_records
+CREATE INDEX IF NOT EXISTS idx_meal_records_school_updated_at ON meal_records(school_id, updated_at, date);
+
+CREATE TABLE IF NOT EXISTS sync_deletions (
+    id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(50) NOT NULL,
+    row_id BIGINT NOT NULL,
+    -- Set for rows that belong to a school (meal records, schools), so a school's sync only sees its own
+    school_id BIGINT,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_deletions_deleted_at ON sync_deletions(deleted_at);
+
+-- The table name is passed as an argument: on partitioned meal_records TG_TABLE_NAME is the partition's.
+-- Rows create_meal_records_partition (meal_records_partitioning.sql) moves out of the default partition
+-- are deleted there but not gone, so it sets app.moving_partition_rows and they are not recorded.
+CREATE OR REPLACE FUNCTION record_sync_deletion() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('app.moving_partition_rows', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    INSERT INTO sync_deletions (table_name, row_id, school_id)
+    VALUES (TG_ARGV[0], OLD.id,
+            CASE TG_ARGV[0] WHEN 'meal_records' THEN OLD.school_id WHEN 'schools' THEN OLD.id END);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS sync_deletion_schools ON schools;
+CREATE TRIGGER sync_deletion_schools AFTER DELETE ON schools
+    FOR EACH ROW EXECUTE FUNCTION record_sync_deletion('schools');
+DROP TRIGGER IF EXISTS sync_deletion_menus ON menus;
+CREATE TRIGGER sync_deletion_menus AFTER DELETE ON menus
+    FOR EACH ROW EXECUTE FUNCTION record_sync_deletion('menus');
+DROP TRIGGER IF EXISTS sync_deletion_menu_food_items ON menu_food_items;
+CREATE TRIGGER sync_deletion_menu_food_items AFTER DELETE ON menu_food_items
+    FOR EACH ROW EXECUTE FUNCTION record_sync_deletion('menu_food_items');
+DROP TRIGGER IF EXISTS sync_deletion_food_items ON food_items;
+CREATE TRIGGER sync_deletion_food_items AFTER DELETE ON food_items
+    FOR EACH ROW EXECUTE FUNCTION record_sync_deletion('food_items');
+DROP TRIGGER IF EXISTS sync_deletion_meal_records ON meal_records;
+CREATE TRIGGER sync_deletion_meal_records AFTER DELETE ON meal_records
+    FOR EACH ROW EXECUTE FUNCTION record_sync_deletion('meal_records');
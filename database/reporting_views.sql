@@ -0,0 +1,52 @@
+-- Reporting views as materialized views
+-- monthly_meal_summary and food_consumption_summary aggregate all of meal_records on every read as plain
+-- views (sample_data.sql). As materialized views they are read like tables; the backend refreshes them
+-- CONCURRENTLY, which needs the unique indexes below, a short while after meal records or menus change.
+-- daily_attendance_report stays a plain view: it is one row per meal record, so a copy would save nothing.
+-- The template views (daily_meal_planning, available_menus, meal_cost_summary) read small tables only.
+
+-- Replace the plain views where they exist (DROP VIEW fails on a materialized view, hence the check)
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'monthly_meal_summary' AND relkind = 'v') THEN
+        DROP VIEW monthly_meal_summary;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'food_consumption_summary' AND relkind = 'v') THEN
+        DROP VIEW food_consumption_summary;
+    END IF;
+END $$;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS monthly_meal_summary AS
+SELECT
+    s.id as school_id,
+    s.name as school_name,
+    s.code as school_code,
+    DATE_TRUNC('month', mr.date)::DATE as month,
+    COUNT(*) as total_meal_days,
+    SUM(mr.students_present) as total_students_present,
+    SUM(mr.meals_served) as total_meals_served,
+    AVG(mr.students_present) as avg_daily_attendance
+FROM meal_records mr
+JOIN schools s ON mr.school_id = s.id
+GROUP BY s.id, s.name, s.code, DATE_TRUNC('month', mr.date);
+
+-- Month first: reports read one month for every school
+CREATE UNIQUE INDEX IF NOT EXISTS idx_monthly_meal_summary_month_school ON monthly_meal_summary(month, school_id);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS food_consumption_summary AS
+SELECT
+    fi.id as food_item_id,
+    fi.name as food_item_name,
+    fi.name_marathi as food_item_name_marathi,
+    fi.category,
+    fi.unit,
+    SUM(mfi.quantity_per_student * mr.meals_served) as total_quantity_consumed,
+    COUNT(DISTINCT mr.date) as days_served,
+    AVG(mfi.quantity_per_student) as avg_quantity_per_student
+FROM menu_food_items mfi
+JOIN food_items fi ON mfi.food_item_id = fi.id
+JOIN menus m ON mfi.menu_id = m.id
+JOIN meal_records mr ON m.id = mr.menu_id
+GROUP BY fi.id, fi.name, fi.name_marathi, fi.category, fi.unit;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_food_consumption_summary_food_item ON food_consumption_summary(food_item_id);
@@ -83,19 +83,22 @@ INSERT INTO meal_records (school_id, menu_id, date, students_present, meals_serv
 (2, 3, '2025-09-03', 280, 280, 'Mr. Rajesh Patil', 'Fresh vegetables used. Students appreciated.', 'EXCELLENT');
 
 -- Create some views for reporting
-CREATE VIEW monthly_meal_summary AS
+-- The two aggregates are materialized views refreshed by the backend (see reporting_views.sql)
+CREATE MATERIALIZED VIEW monthly_meal_summary AS
 SELECT 
+    s.id as school_id,
     s.name as school_name,
     s.code as school_code,
-    DATE_TRUNC('month', mr.date) as month,
+    DATE_TRUNC('month', mr.date)::DATE as month,
     COUNT(*) as total_meal_days,
     SUM(mr.students_present) as total_students_present,
     SUM(mr.meals_served) as total_meals_served,
     AVG(mr.students_present) as avg_daily_attendance
 FROM meal_records mr
 JOIN schools s ON mr.school_id = s.id
-GROUP BY s.id, s.name, s.code, DATE_TRUNC('month', mr.date)
-ORDER BY month DESC, school_name;
+GROUP BY s.id, s.name, s.code, DATE_TRUNC('month', mr.date);
+
+CREATE UNIQUE INDEX idx_monthly_meal_summary_month_school ON monthly_meal_summary(month, school_id);
 
 CREATE VIEW daily_attendance_report AS
 SELECT 
@@ -112,8 +115,9 @@ FROM meal_records mr
 JOIN schools s ON mr.school_id = s.id
 ORDER BY mr.date DESC, s.name;
 
-CREATE VIEW food_consumption_summary AS
+CREATE MATERIALIZED VIEW food_consumption_summary AS
 SELECT 
+    fi.id as food_item_id,
     fi.name as food_item_name,
     fi.name_marathi as food_item_name_marathi,
     fi.category,
@@ -125,5 +129,6 @@ FROM menu_food_items mfi
 JOIN food_items fi ON mfi.food_item_id = fi.id
 JOIN menus m ON mfi.menu_id = m.id
 JOIN meal_records mr ON m.id = mr.menu_id
-GROUP BY fi.id, fi.name, fi.name_marathi, fi.category, fi.unit
-ORDER BY total_quantity_consumed DESC;
\ No newline at end of file
+GROUP BY fi.id, fi.name, fi.name_marathi, fi.category, fi.unit;
+
+CREATE UNIQUE INDEX idx_food_consumption_summary_food_item ON food_consumption_summary(food_item_id);
\ No newline at end of file
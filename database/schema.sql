@@ -10,6 +10,7 @@
 
 -- Enable extensions
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 -- Schools table
 CREATE TABLE schools (
@@ -24,6 +25,8 @@ CREATE TABLE schools (
     email VARCHAR(255),
     principal_name VARCHAR(255),
     total_students INTEGER DEFAULT 0,
+    grade_1_5_count INTEGER DEFAULT 0,
+    grade_6_8_count INTEGER DEFAULT 0,
     active BOOLEAN NOT NULL DEFAULT TRUE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
@@ -106,7 +109,7 @@ CREATE TABLE menu_food_items (
     UNIQUE(menu_id, food_item_id)
 );
 
--- Meal records table
+-- Meal records table (partitioned by month with meal_records_partitioning.sql once it grows large)
 CREATE TABLE meal_records (
     id BIGSERIAL PRIMARY KEY,
     school_id BIGINT NOT NULL REFERENCES schools(id),
@@ -114,6 +117,8 @@ CREATE TABLE meal_records (
     date DATE NOT NULL,
     students_present INTEGER NOT NULL DEFAULT 0,
     meals_served INTEGER NOT NULL DEFAULT 0,
+    grade_1_5_present INTEGER DEFAULT 0,
+    grade_6_8_present INTEGER DEFAULT 0,
     teacher_in_charge VARCHAR(255),
     remarks TEXT,
     photo_url VARCHAR(500),
@@ -123,15 +128,40 @@ CREATE TABLE meal_records (
     UNIQUE(school_id, menu_id, date)
 );
 
+-- Meal record ids are allocated by the backend in blocks of 50 (pooled optimizer) so inserts can be batched
+ALTER SEQUENCE meal_records_id_seq INCREMENT BY 50;
+
+-- Meal cost rates per student per day in paise, versioned and effective-dated (see meal_cost_rates.sql)
+CREATE TABLE meal_cost_rates (
+    id BIGSERIAL PRIMARY KEY,
+    effective_from DATE NOT NULL,
+    version INTEGER NOT NULL DEFAULT 1,
+    grade_1_5_paise INTEGER NOT NULL CHECK (grade_1_5_paise >= 0),
+    grade_6_8_paise INTEGER NOT NULL CHECK (grade_6_8_paise >= 0),
+    grade_1_5_cooking_paise INTEGER NOT NULL DEFAULT 0 CHECK (grade_1_5_cooking_paise >= 0),
+    grade_6_8_cooking_paise INTEGER NOT NULL DEFAULT 0 CHECK (grade_6_8_cooking_paise >= 0),
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(effective_from, version)
+);
+
+INSERT INTO meal_cost_rates (effective_from, version, grade_1_5_paise, grade_6_8_paise, notes)
+VALUES ('2000-01-01', 1, 259, 388, 'Maharashtra MDM rates from cost_calculation_system.sql');
+
 -- Create indexes for better performance
 CREATE INDEX idx_schools_city ON schools(city);
 CREATE INDEX idx_schools_state ON schools(state);
 CREATE INDEX idx_schools_active ON schools(active);
+-- Trigram index for substring search (see search_indexes.sql)
+CREATE INDEX idx_schools_search_trgm ON schools USING gin ((lower(name || ' ' || code || ' ' || coalesce(city, ''))) gin_trgm_ops);
 
 CREATE INDEX idx_users_username ON users(username);
 CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_users_role ON users(role);
 CREATE INDEX idx_users_school_id ON users(school_id);
+-- User directory search (see user_search.sql)
+CREATE INDEX idx_users_search_trgm ON users USING gin ((lower(username || ' ' || full_name || ' ' || coalesce(email, ''))) gin_trgm_ops);
+CREATE INDEX idx_users_active_full_name ON users(full_name, id) WHERE active;
 
 CREATE INDEX idx_students_school_id ON students(school_id);
 CREATE INDEX idx_students_class_name ON students(class_name);
@@ -139,6 +169,7 @@ CREATE INDEX idx_students_active ON students(active);
 
 CREATE INDEX idx_food_items_category ON food_items(category);
 CREATE INDEX idx_food_items_active ON food_items(active);
+CREATE INDEX idx_food_items_search_trgm ON food_items USING gin ((lower(name || ' ' || coalesce(name_marathi, ''))) gin_trgm_ops);
 
 CREATE INDEX idx_menus_date ON menus(date);
 CREATE INDEX idx_menus_meal_type ON menus(meal_type);
@@ -148,6 +179,8 @@ CREATE INDEX idx_menus_active ON menus(active);
 CREATE INDEX idx_meal_records_school_id ON meal_records(school_id);
 CREATE INDEX idx_meal_records_date ON meal_records(date);
 CREATE INDEX idx_meal_records_menu_id ON meal_records(menu_id);
+CREATE INDEX idx_meal_records_date_id ON meal_records(date, id);
+CREATE INDEX idx_meal_records_school_date_id ON meal_records(school_id, date, id);
 
 -- Create updated_at trigger function
 CREATE OR REPLACE FUNCTION update_updated_at_column()
@@ -0,0 +1,13 @@
+-- Type-ahead search for schools and food items
+-- The search boxes match a substring anywhere in a school's name, code or city and in a food item's
+-- English or Marathi name. A LIKE '%q%' cannot use a B-tree index; a trigram GIN index on the
+-- lowercased, concatenated search text answers it with a single index scan. The expressions must stay
+-- identical to the ones in SchoolRepository.searchSchools and FoodItemRepository.searchFoodItems.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_schools_search_trgm
+    ON schools USING gin ((lower(name || ' ' || code || ' ' || coalesce(city, ''))) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_food_items_search_trgm
+    ON food_items USING gin ((lower(name || ' ' || coalesce(name_marathi, ''))) gin_trgm_ops);
@@ -0,0 +1,12 @@
+-- Paged user directory search
+-- The user management screen searches a substring of the username, full name or email, optionally
+-- filtered by role and school, and pages through the result in name order with a total count.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Same expression as UserRepository.searchDirectory, so the substring match is a trigram index scan
+CREATE INDEX IF NOT EXISTS idx_users_search_trgm
+    ON users USING gin ((lower(username || ' ' || full_name || ' ' || coalesce(email, ''))) gin_trgm_ops);
+
+-- Unfiltered and role/school filtered pages read active users in name order off the index
+CREATE INDEX IF NOT EXISTS idx_users_active_full_name ON users(full_name, id) WHERE active;
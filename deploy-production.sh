@@ -121,7 +121,8 @@ check_health() {
             echo -e "${GREEN}✅ Database is healthy${NC}"
             
             # Check backend
-            if curl -f http://localhost:8080/api/actuator/health > /dev/null 2>&1; then
+            # Actuator is on the management port, which is not published outside the container
+            if docker-compose -f "$COMPOSE_FILE" exec -T backend curl -f http://localhost:8081/actuator/health > /dev/null 2>&1; then
                 echo -e "${GREEN}✅ Backend is healthy${NC}"
                 
                 # Check frontend
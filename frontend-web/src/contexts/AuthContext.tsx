@@ -1,4 +1,5 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
+import { apiService } from '../services/ApiService';
 
 interface User {
   id: number;
@@ -56,6 +57,31 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
     console.log('Password:', password);
     
     try {
+      // Log in against the backend first; it returns the bearer token the API calls need
+      try {
+        const response = await apiService.login(username, password);
+        const { token, user: apiUser } = response.data;
+        const authUser: User = {
+          id: apiUser.id,
+          username: apiUser.username,
+          full_name: apiUser.fullName,
+          email: apiUser.email,
+          role: apiUser.role,
+          school_id: apiUser.schoolId,
+          school_name: apiUser.schoolName,
+          active: true
+        };
+        
+        localStorage.setItem('token', token);
+        apiService.setAuthToken(token);
+        setUser(authUser);
+        localStorage.setItem('current_user', JSON.stringify(authUser));
+        setLoading(false);
+        return true;
+      } catch (error) {
+        console.log('Backend login failed, checking local users');
+      }
+      
       // Check if it's the default admin user first
       if (username === 'admin' && password === 'admin123') {
         const adminUser: User = {
@@ -136,6 +162,8 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
   const logout = () => {
     setUser(null);
     localStorage.removeItem('current_user');
+    localStorage.removeItem('token');
+    apiService.clearAuthToken();
   };
 
   const isAdmin = user?.role === 'ADMIN';
@@ -24,7 +24,8 @@ class ApiService {
       (response) => response,
       (error) => {
         console.error('API Error:', error.response?.data || error.message);
-        if (error.response?.status === 401) {
+        // A failed login is reported by the login form itself
+        if (error.response?.status === 401 && !error.config?.url?.endsWith('/auth/login')) {
           // Handle unauthorized access
           localStorage.removeItem('token');
           localStorage.removeItem('user');
@@ -149,8 +150,17 @@ class ApiService {
     return this.api.get('/dashboard/stats');
   }
 
-  async getReportData(type: string, params: any): Promise<AxiosResponse> {
-    return this.api.get(`/reports/${type}`, { params });
+  // Reports are generated in the background: submit, poll the job until DONE, then download its file
+  async submitReport(type: string, params: any): Promise<AxiosResponse> {
+    return this.api.post(`/reports/${type}`, null, { params });
+  }
+
+  async getReportJob(id: string): Promise<AxiosResponse> {
+    return this.api.get(`/reports/jobs/${id}`);
+  }
+
+  async downloadReport(id: string): Promise<AxiosResponse> {
+    return this.api.get(`/reports/jobs/${id}/file`, { responseType: 'blob' });
   }
 
   // User endpoints
@@ -42,14 +42,8 @@ const DashboardScreen = () => {
 
   const loadDashboardData = async () => {
     try {
-      // Load dashboard statistics
-      // This would be implemented with actual API calls
-      setStats({
-        totalSchools: 25,
-        todayMeals: 1250,
-        weeklyMeals: 8750,
-        monthlyMeals: 37500,
-      });
+      const response = await apiService.getDashboardStats();
+      setStats(response.data);
     } catch (error) {
       console.error('Error loading dashboard data:', error);
     } finally {
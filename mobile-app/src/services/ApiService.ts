@@ -64,7 +64,7 @@ class ApiService {
   }
 
   async getCurrentWeekMenus(): Promise<AxiosResponse> {
-    return this.api.get('/menus/current-week');
+    return this.api.get('/menus/current-week/with-food-items');
   }
 
   async getCurrentMonthMenus(): Promise<AxiosResponse> {
@@ -109,6 +109,11 @@ class ApiService {
     return this.api.get(`/food-items/search?query=${query}`);
   }
 
+  // Dashboard endpoints
+  async getDashboardStats(): Promise<AxiosResponse> {
+    return this.api.get('/dashboard/stats');
+  }
+
   // Upload endpoint
   async uploadFile(file: FormData): Promise<AxiosResponse> {
     return this.api.post('/upload', file, {